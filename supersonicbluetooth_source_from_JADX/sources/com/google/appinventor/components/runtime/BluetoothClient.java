@@ -1,17 +1,21 @@
 package com.google.appinventor.components.runtime;
 
+import android.os.Handler;
 import android.util.Log;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.PropertyCategory;
+import com.google.appinventor.components.annotations.SimpleEvent;
 import com.google.appinventor.components.annotations.SimpleFunction;
 import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.annotations.UsesPermissions;
 import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.common.PropertyTypeConstants;
+import com.google.appinventor.components.runtime.util.AsynchUtil;
 import com.google.appinventor.components.runtime.util.BluetoothReflection;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.SdkLevel;
+import com.google.appinventor.components.runtime.util.YailList;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -25,7 +29,15 @@ import java.util.UUID;
 public final class BluetoothClient extends BluetoothConnectionBase {
     private static final String SPP_UUID = "00001101-0000-1000-8000-00805F9B34FB";
     private Set<Integer> acceptableDeviceClasses;
+    private final Handler androidUIHandler = new Handler();
     private final List<Component> attachedComponents = new ArrayList();
+    Ev3CommandPipeline ev3CommandPipeline;
+    Ev3SensorPoller ev3SensorPoller;
+    NxtLink nxtLink;
+    NxtSensorPoller nxtSensorPoller;
+    private Object pendingSocket;
+    private volatile Object reconnectDevice;
+    private volatile UUID reconnectUuid;
 
     public BluetoothClient(ComponentContainer container) {
         super(container, PropertyTypeConstants.PROPERTY_TYPE_BLUETOOTHCLIENT);
@@ -120,59 +132,273 @@ public final class BluetoothClient extends BluetoothConnectionBase {
         return connect("ConnectWithUUID", address, uuid);
     }
 
+    @SimpleFunction(description = "Start connecting to the Bluetooth device with the specified address and the Serial Port Profile (SPP) without waiting for the connection to be made. The Connected event is raised when the connection succeeds and the ConnectionFailed event when it fails or takes longer than timeout milliseconds. A timeout of 0 waits until the connection attempt ends on its own.")
+    public void ConnectAsync(String address, int timeout) {
+        connectAsync(address, SPP_UUID, timeout);
+    }
+
+    @SimpleFunction(description = "Start connecting to the Bluetooth device with the specified address and UUID without waiting for the connection to be made. See ConnectAsync.")
+    public void ConnectWithUUIDAsync(String address, String uuid, int timeout) {
+        connectAsync(address, uuid, timeout);
+    }
+
+    private void connectAsync(final String address, String uuidString, int timeout) {
+        Object[] device = new Object[1];
+        int errorNumber = findConnectableDevice(address, device);
+        if (errorNumber != 0) {
+            ConnectionFailed(address, ErrorMessages.formatMessage(errorNumber, new Object[0]));
+            return;
+        }
+        final Object bluetoothDevice = device[0];
+        try {
+            final UUID uuid = UUID.fromString(uuidString);
+            Disconnect();
+            try {
+                final Object bluetoothSocket = createSocket(bluetoothDevice, uuid);
+                this.pendingSocket = bluetoothSocket;
+                final Runnable timeoutTask = new Runnable() {
+                    public void run() {
+                        if (BluetoothClient.this.pendingSocket == bluetoothSocket) {
+                            BluetoothClient.this.pendingSocket = null;
+                            BluetoothClient.this.closeQuietly(bluetoothSocket);
+                            BluetoothClient.this.ConnectionFailed(address, "The connection attempt timed out.");
+                        }
+                    }
+                };
+                if (timeout > 0) {
+                    this.androidUIHandler.postDelayed(timeoutTask, (long) timeout);
+                }
+                AsynchUtil.runAsynchronously(new Runnable() {
+                    public void run() {
+                        String failure = null;
+                        try {
+                            BluetoothReflection.connectToBluetoothSocket(bluetoothSocket);
+                        } catch (IOException e) {
+                            failure = e.getMessage();
+                            if (failure == null) {
+                                failure = "Unable to connect.";
+                            }
+                        }
+                        final String message = failure;
+                        BluetoothClient.this.androidUIHandler.post(new Runnable() {
+                            public void run() {
+                                BluetoothClient.this.androidUIHandler.removeCallbacks(timeoutTask);
+                                if (BluetoothClient.this.pendingSocket == bluetoothSocket) {
+                                    BluetoothClient.this.pendingSocket = null;
+                                    BluetoothClient.this.finishConnectAsync(address, bluetoothDevice, uuid, bluetoothSocket, message);
+                                    return;
+                                }
+                                BluetoothClient.this.closeQuietly(bluetoothSocket);
+                            }
+                        });
+                    }
+                });
+            } catch (IOException e) {
+                ConnectionFailed(address, e.getMessage());
+            }
+        } catch (IllegalArgumentException e2) {
+            ConnectionFailed(address, ErrorMessages.formatMessage(ErrorMessages.ERROR_BLUETOOTH_INVALID_UUID, new Object[]{uuidString}));
+        }
+    }
+
+    protected void cancelConnect() {
+        Object bluetoothSocket = this.pendingSocket;
+        if (bluetoothSocket != null) {
+            this.pendingSocket = null;
+            closeQuietly(bluetoothSocket);
+        }
+    }
+
+    private void finishConnectAsync(String address, Object bluetoothDevice, UUID uuid, Object bluetoothSocket, String failure) {
+        if (failure != null) {
+            closeQuietly(bluetoothSocket);
+            ConnectionFailed(address, failure);
+            return;
+        }
+        try {
+            setConnection(bluetoothSocket);
+            this.reconnectDevice = bluetoothDevice;
+            this.reconnectUuid = uuid;
+            Log.i(this.logTag, "Connected to Bluetooth device " + address + ".");
+            Connected(address);
+        } catch (IOException e) {
+            Disconnect();
+            ConnectionFailed(address, e.getMessage());
+        }
+    }
+
+    @SimpleEvent(description = "Indicates that a connection started by ConnectAsync has been made.")
+    public void Connected(String address) {
+        EventDispatcher.dispatchEvent(this, "Connected", address);
+    }
+
+    @SimpleEvent(description = "Indicates that a connection started by ConnectAsync could not be made or timed out.")
+    public void ConnectionFailed(String address, String message) {
+        EventDispatcher.dispatchEvent(this, "ConnectionFailed", address, message);
+    }
+
     private boolean connect(String functionName, String address, String uuidString) {
-        Object bluetoothAdapter = BluetoothReflection.getBluetoothAdapter();
-        if (bluetoothAdapter == null) {
-            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_AVAILABLE, new Object[0]);
+        Object bluetoothDevice = getConnectableDevice(functionName, address);
+        if (bluetoothDevice == null) {
             return false;
-        } else if (BluetoothReflection.isBluetoothEnabled(bluetoothAdapter)) {
-            int firstSpace = address.indexOf(" ");
-            if (firstSpace != -1) {
-                address = address.substring(0, firstSpace);
+        }
+        try {
+            UUID uuid = UUID.fromString(uuidString);
+            Disconnect();
+            try {
+                connect(bluetoothDevice, uuid);
+                return true;
+            } catch (IOException e) {
+                Disconnect();
+                this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_CONNECT, new Object[0]);
+                return false;
             }
-            if (BluetoothReflection.checkBluetoothAddress(bluetoothAdapter, address)) {
-                Object bluetoothDevice = BluetoothReflection.getRemoteDevice(bluetoothAdapter, address);
-                if (!BluetoothReflection.isBonded(bluetoothDevice)) {
-                    this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_PAIRED_DEVICE, new Object[0]);
-                    return false;
-                } else if (isDeviceClassAcceptable(bluetoothDevice)) {
-                    try {
-                        UUID uuid = UUID.fromString(uuidString);
-                        Disconnect();
+        } catch (IllegalArgumentException e2) {
+            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_INVALID_UUID, uuidString);
+            return false;
+        }
+    }
+
+    private Object getConnectableDevice(String functionName, String address) {
+        Object[] device = new Object[1];
+        int errorNumber = findConnectableDevice(address, device);
+        if (errorNumber == 0) {
+            return device[0];
+        }
+        this.form.dispatchErrorOccurredEvent(this, functionName, errorNumber, new Object[0]);
+        return null;
+    }
+
+    private int findConnectableDevice(String address, Object[] device) {
+        Object bluetoothAdapter = BluetoothReflection.getBluetoothAdapter();
+        if (bluetoothAdapter == null) {
+            return ErrorMessages.ERROR_BLUETOOTH_NOT_AVAILABLE;
+        }
+        if (!BluetoothReflection.isBluetoothEnabled(bluetoothAdapter)) {
+            return ErrorMessages.ERROR_BLUETOOTH_NOT_ENABLED;
+        }
+        int firstSpace = address.indexOf(" ");
+        if (firstSpace != -1) {
+            address = address.substring(0, firstSpace);
+        }
+        if (!BluetoothReflection.checkBluetoothAddress(bluetoothAdapter, address)) {
+            return ErrorMessages.ERROR_BLUETOOTH_INVALID_ADDRESS;
+        }
+        Object bluetoothDevice = BluetoothReflection.getRemoteDevice(bluetoothAdapter, address);
+        if (!BluetoothReflection.isBonded(bluetoothDevice)) {
+            return ErrorMessages.ERROR_BLUETOOTH_NOT_PAIRED_DEVICE;
+        }
+        if (!isDeviceClassAcceptable(bluetoothDevice)) {
+            return ErrorMessages.ERROR_BLUETOOTH_NOT_REQUIRED_CLASS_OF_DEVICE;
+        }
+        device[0] = bluetoothDevice;
+        return 0;
+    }
+
+    private Object createSocket(Object bluetoothDevice, UUID uuid) throws IOException {
+        if (this.secure || SdkLevel.getLevel() < 10) {
+            return BluetoothReflection.createRfcommSocketToServiceRecord(bluetoothDevice, uuid);
+        }
+        return BluetoothReflection.createInsecureRfcommSocketToServiceRecord(bluetoothDevice, uuid);
+    }
+
+    @SimpleFunction(description = "Start opening an additional connection to the Bluetooth device with the specified address and the Serial Port Profile (SPP), independent of the connection made by Connect. Returns a handle for the connection without waiting for it to be made, or -1 if the address cannot be connected. The ConnectionOpened event is raised when the connection is made and the ConnectionClosed event if it cannot be made. Data received on the connection is reported by the ConnectionDataReceived event.")
+    public int OpenConnection(String address) {
+        List<Integer> handles = openConnections("OpenConnection", new Object[]{address});
+        return ((Integer) handles.get(0)).intValue();
+    }
+
+    @SimpleFunction(description = "Start opening additional connections to all of the specified Bluetooth addresses at the same time. Returns a list with the handle of each connection in the same order as the addresses, or -1 for an address that cannot be connected. See OpenConnection.")
+    public List<Integer> OpenConnections(YailList addresses) {
+        return openConnections("OpenConnections", addresses.toArray());
+    }
+
+    private List<Integer> openConnections(String functionName, Object[] addresses) {
+        final UUID uuid = UUID.fromString(SPP_UUID);
+        List<Integer> handles = new ArrayList();
+        for (Object address : addresses) {
+            final String deviceAddress = address.toString();
+            final Object bluetoothDevice = getConnectableDevice(functionName, deviceAddress);
+            if (bluetoothDevice == null) {
+                handles.add(Integer.valueOf(-1));
+            } else {
+                final int handle = this.connectionPool.reserve();
+                handles.add(Integer.valueOf(handle));
+                BluetoothConnectionPool.getExecutor().execute(new Runnable() {
+                    public void run() {
+                        Object bluetoothSocket = null;
+                        String failure = null;
                         try {
-                            connect(bluetoothDevice, uuid);
-                            return true;
+                            bluetoothSocket = BluetoothClient.this.createSocket(bluetoothDevice, uuid);
+                            BluetoothReflection.connectToBluetoothSocket(bluetoothSocket);
                         } catch (IOException e) {
-                            Disconnect();
-                            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_CONNECT, new Object[0]);
-                            return false;
+                            failure = e.getMessage();
                         }
-                    } catch (IllegalArgumentException e2) {
-                        this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_INVALID_UUID, uuidString);
-                        return false;
+                        final Object connectedSocket = bluetoothSocket;
+                        final String message = failure;
+                        BluetoothClient.this.androidUIHandler.post(new Runnable() {
+                            public void run() {
+                                BluetoothClient.this.finishOpenConnection(handle, deviceAddress, connectedSocket, message);
+                            }
+                        });
                     }
-                } else {
-                    this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_REQUIRED_CLASS_OF_DEVICE, new Object[0]);
-                    return false;
+                });
+            }
+        }
+        return handles;
+    }
+
+    private void finishOpenConnection(int handle, String address, Object bluetoothSocket, String failure) {
+        if (failure == null) {
+            try {
+                if (this.connectionPool.add(handle, address, bluetoothSocket)) {
+                    ConnectionOpened(handle);
+                    return;
                 }
+                closeQuietly(bluetoothSocket);
+                return;
+            } catch (IOException e) {
+                failure = e.getMessage();
             }
-            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_INVALID_ADDRESS, new Object[0]);
-            return false;
-        } else {
-            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_ENABLED, new Object[0]);
-            return false;
+        } else if (!this.connectionPool.release(handle)) {
+            if (bluetoothSocket != null) {
+                closeQuietly(bluetoothSocket);
+            }
+            return;
+        }
+        if (bluetoothSocket != null) {
+            closeQuietly(bluetoothSocket);
         }
+        Log.w(this.logTag, "Unable to open connection to " + address + ": " + failure);
+        ConnectionClosed(handle);
     }
 
-    private void connect(Object bluetoothDevice, UUID uuid) throws IOException {
-        Object bluetoothSocket;
-        if (this.secure || SdkLevel.getLevel() < 10) {
-            bluetoothSocket = BluetoothReflection.createRfcommSocketToServiceRecord(bluetoothDevice, uuid);
-        } else {
-            bluetoothSocket = BluetoothReflection.createInsecureRfcommSocketToServiceRecord(bluetoothDevice, uuid);
+    @SimpleEvent(description = "Indicates that the additional connection with the specified handle, started by OpenConnection or OpenConnections, has been made.")
+    public void ConnectionOpened(int handle) {
+        EventDispatcher.dispatchEvent(this, "ConnectionOpened", Integer.valueOf(handle));
+    }
+
+    protected boolean canReconnect() {
+        return this.reconnectDevice != null;
+    }
+
+    protected Object reconnectSocket() throws IOException {
+        Object bluetoothSocket = createSocket(this.reconnectDevice, this.reconnectUuid);
+        try {
+            BluetoothReflection.connectToBluetoothSocket(bluetoothSocket);
+            return bluetoothSocket;
+        } catch (IOException e) {
+            closeQuietly(bluetoothSocket);
+            throw e;
         }
+    }
+
+    private void connect(Object bluetoothDevice, UUID uuid) throws IOException {
+        Object bluetoothSocket = createSocket(bluetoothDevice, uuid);
         BluetoothReflection.connectToBluetoothSocket(bluetoothSocket);
         setConnection(bluetoothSocket);
+        this.reconnectDevice = bluetoothDevice;
+        this.reconnectUuid = uuid;
         Log.i(this.logTag, "Connected to Bluetooth device " + BluetoothReflection.getBluetoothDeviceAddress(bluetoothDevice) + " " + BluetoothReflection.getBluetoothDeviceName(bluetoothDevice) + ".");
     }
 }
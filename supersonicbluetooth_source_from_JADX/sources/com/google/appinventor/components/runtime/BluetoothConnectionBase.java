@@ -1,5 +1,7 @@
 package com.google.appinventor.components.runtime;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -7,8 +9,13 @@ import com.google.appinventor.components.annotations.SimpleEvent;
 import com.google.appinventor.components.annotations.SimpleFunction;
 import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
+import com.google.appinventor.components.runtime.util.AsynchUtil;
 import com.google.appinventor.components.runtime.util.BluetoothReflection;
+import com.google.appinventor.components.runtime.util.ByteRingBuffer;
+import com.google.appinventor.components.runtime.util.DelimitedFrameReader;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
+import com.google.appinventor.components.runtime.util.LinkStatistics;
+import com.google.appinventor.components.runtime.util.RecordFormat;
 import com.google.appinventor.components.runtime.util.YailList;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -19,19 +26,76 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @SimpleObject
 public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent implements Component, OnDestroyListener, Deleteable {
+    private static final int MAX_WRITE_SIZE = 990;
+    private static final int SEND_DRAIN_TIMEOUT = 2000;
+    private static final int STREAM_CHUNK_SIZE = 1024;
+    private static final int STREAM_POLL_INTERVAL = 10;
+    private boolean asynchronousSend;
+    private boolean autoReconnect;
+    private boolean bufferWhileReconnecting;
     private final List<BluetoothConnectionListener> bluetoothConnectionListeners;
+    protected final BluetoothConnectionPool connectionPool = new BluetoothConnectionPool(new BluetoothConnectionPool.Listener() {
+        public void dataReceived(final int handle, final byte[] bytes) {
+            BluetoothConnectionBase.this.form.runOnUiThread(new Runnable() {
+                public void run() {
+                    BluetoothConnectionBase.this.ConnectionDataReceived(handle, YailList.makeByteList(bytes, true));
+                }
+            });
+        }
+
+        public void connectionClosed(final int handle, String reason) {
+            Log.i(BluetoothConnectionBase.this.logTag, "Pooled connection " + handle + " closed: " + reason);
+            BluetoothConnectionBase.this.form.runOnUiThread(new Runnable() {
+                public void run() {
+                    BluetoothConnectionBase.this.ConnectionClosed(handle);
+                }
+            });
+        }
+    });
     private ByteOrder byteOrder;
     private Object connectedBluetoothSocket;
     private byte delimiter;
     private String encoding;
+    private volatile int flushInterval;
+    private volatile int flushThreshold;
+    private final DelimitedFrameReader frameReader = new DelimitedFrameReader(256);
     private InputStream inputStream;
     protected final String logTag;
     private OutputStream outputStream;
+    private ByteArrayOutputStream reconnectBuffer;
+    private volatile int reconnectGeneration;
+    private int reconnectInitialDelay;
+    private int reconnectMaxDelay;
+    private volatile Object receiveOwner;
+    private volatile boolean reconnecting;
     protected boolean secure;
+    private final LinkStatistics statistics = new LinkStatistics();
+    private Handler statisticsHandler;
+    private int statisticsInterval;
+    private final Runnable statisticsSampler = new Runnable() {
+        public void run() {
+            if (BluetoothConnectionBase.this.statisticsInterval > 0) {
+                BluetoothConnectionBase.this.StatisticsSampled(BluetoothConnectionBase.this.Statistics());
+                BluetoothConnectionBase.this.statisticsHandler.postDelayed(this, (long) BluetoothConnectionBase.this.statisticsInterval);
+            }
+        }
+    };
+    private volatile ByteRingBuffer sendBuffer;
+    private int sendBufferSize;
+    private SendWriter sendWriter;
+    private volatile Thread sendWriterThread;
+    private final AtomicBoolean dataReceivedPending = new AtomicBoolean();
+    private volatile ByteRingBuffer streamBuffer;
+    private int streamBufferSize;
+    private volatile Thread streamReaderThread;
+    private boolean streaming;
 
     protected BluetoothConnectionBase(ComponentContainer container, String logTag) {
         this(container.$form(), logTag);
@@ -46,6 +110,16 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         CharacterEncoding("UTF-8");
         DelimiterByte(0);
         Secure(true);
+        StreamBufferSize(4096);
+        Streaming(false);
+        SendBufferSize(8192);
+        FlushInterval(0);
+        FlushThreshold(MAX_WRITE_SIZE);
+        AsynchronousSend(false);
+        AutoReconnect(false);
+        ReconnectInitialDelay(500);
+        ReconnectMaxDelay(30000);
+        BufferWhileReconnecting(false);
     }
 
     protected BluetoothConnectionBase(OutputStream outputStream, InputStream inputStream) {
@@ -105,15 +179,34 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
 
     protected final void setConnection(Object bluetoothSocket) throws IOException {
         this.connectedBluetoothSocket = bluetoothSocket;
+        this.frameReader.clear();
         this.inputStream = new BufferedInputStream(BluetoothReflection.getInputStream(this.connectedBluetoothSocket));
         this.outputStream = new BufferedOutputStream(BluetoothReflection.getOutputStream(this.connectedBluetoothSocket));
+        if (this.streaming) {
+            startStreaming();
+        }
+        if (this.asynchronousSend) {
+            startSending();
+        }
         fireAfterConnectEvent();
     }
 
     @SimpleFunction(description = "Disconnect from the connected Bluetooth device.")
     public final void Disconnect() {
+        synchronized (this) {
+            this.reconnectGeneration++;
+            this.reconnecting = false;
+            this.reconnectBuffer = null;
+        }
+        cancelConnect();
+        closeConnection();
+    }
+
+    private void closeConnection() {
         if (this.connectedBluetoothSocket != null) {
             fireBeforeDisconnectEvent();
+            stopStreaming();
+            stopSending();
             try {
                 BluetoothReflection.closeBluetoothSocket(this.connectedBluetoothSocket);
                 Log.i(this.logTag, "Disconnected from Bluetooth device.");
@@ -124,6 +217,7 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         }
         this.inputStream = null;
         this.outputStream = null;
+        this.frameReader.clear();
     }
 
     @SimpleProperty(category = PropertyCategory.BEHAVIOR)
@@ -131,6 +225,179 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         return this.connectedBluetoothSocket != null;
     }
 
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether a lost connection is being re-established in the background.")
+    public final boolean IsReconnecting() {
+        return this.reconnecting;
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether a connection that is lost while reading or writing is re-established automatically. When the connection is lost the ConnectionLost event is raised once, and reconnection is retried with increasing delays until it succeeds, which raises the Reconnected event, or until Disconnect is called.")
+    public boolean AutoReconnect() {
+        return this.autoReconnect;
+    }
+
+    @DesignerProperty(defaultValue = "False", editorType = "boolean")
+    @SimpleProperty
+    public void AutoReconnect(boolean autoReconnect) {
+        this.autoReconnect = autoReconnect;
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The delay, in milliseconds, before the first reconnection attempt. The delay doubles after every failed attempt up to ReconnectMaxDelay.")
+    public int ReconnectInitialDelay() {
+        return this.reconnectInitialDelay;
+    }
+
+    @DesignerProperty(defaultValue = "500", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void ReconnectInitialDelay(int milliseconds) {
+        if (milliseconds > 0) {
+            this.reconnectInitialDelay = milliseconds;
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The longest delay, in milliseconds, between reconnection attempts.")
+    public int ReconnectMaxDelay() {
+        return this.reconnectMaxDelay;
+    }
+
+    @DesignerProperty(defaultValue = "30000", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void ReconnectMaxDelay(int milliseconds) {
+        if (milliseconds > 0) {
+            this.reconnectMaxDelay = milliseconds;
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether data sent while reconnecting is kept, up to SendBufferSize bytes, and sent once the connection is re-established. Otherwise such data is discarded.")
+    public boolean BufferWhileReconnecting() {
+        return this.bufferWhileReconnecting;
+    }
+
+    @DesignerProperty(defaultValue = "False", editorType = "boolean")
+    @SimpleProperty
+    public void BufferWhileReconnecting(boolean bufferWhileReconnecting) {
+        this.bufferWhileReconnecting = bufferWhileReconnecting;
+    }
+
+    @SimpleEvent(description = "Indicates that the connection was lost and that AutoReconnect is re-establishing it.")
+    public void ConnectionLost(String message) {
+        EventDispatcher.dispatchEvent(this, "ConnectionLost", message);
+    }
+
+    @SimpleEvent(description = "Indicates that a lost connection has been re-established.")
+    public void Reconnected() {
+        EventDispatcher.dispatchEvent(this, "Reconnected", new Object[0]);
+    }
+
+    protected void cancelConnect() {
+    }
+
+    protected boolean canReconnect() {
+        return false;
+    }
+
+    protected Object reconnectSocket() throws IOException {
+        throw new IOException("Reconnection is not supported.");
+    }
+
+    private void linkFailed(String functionName, int errorNumber, Object... messageArgs) {
+        if (!Looper.getMainLooper().getThread().equals(Thread.currentThread())) {
+            if (this.form != null) {
+                postError(functionName, errorNumber, messageArgs);
+            }
+        } else if (!this.reconnecting) {
+            if (!this.autoReconnect || !IsConnected() || !canReconnect()) {
+                bluetoothError(functionName, errorNumber, messageArgs);
+            } else if (beginReconnecting()) {
+                String message = ErrorMessages.formatMessage(errorNumber, messageArgs);
+                Log.w(this.logTag, "Connection lost in " + functionName + ": " + message);
+                closeConnection();
+                this.statistics.recordConnectionLost();
+                ConnectionLost(message);
+                startReconnecting(this.reconnectGeneration);
+            }
+        }
+    }
+
+    private synchronized boolean beginReconnecting() {
+        if (this.reconnecting) {
+            return false;
+        }
+        this.reconnecting = true;
+        this.reconnectBuffer = this.bufferWhileReconnecting ? new ByteArrayOutputStream() : null;
+        return true;
+    }
+
+    private void startReconnecting(final int generation) {
+        final int initialDelay = this.reconnectInitialDelay;
+        final int maxDelay = Math.max(this.reconnectMaxDelay, initialDelay);
+        AsynchUtil.runAsynchronously(new Runnable() {
+            public void run() {
+                Random random = new Random();
+                long delay = (long) initialDelay;
+                while (BluetoothConnectionBase.this.reconnectGeneration == generation) {
+                    try {
+                        Thread.sleep((delay / 2) + ((long) random.nextInt((int) ((delay / 2) + 1))));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (BluetoothConnectionBase.this.reconnectGeneration != generation) {
+                        return;
+                    }
+                    try {
+                        BluetoothConnectionBase.this.finishReconnecting(generation, BluetoothConnectionBase.this.reconnectSocket());
+                        return;
+                    } catch (IOException e2) {
+                        Log.i(BluetoothConnectionBase.this.logTag, "Reconnection attempt failed: " + e2.getMessage());
+                        delay = Math.min(2 * delay, (long) maxDelay);
+                    }
+                }
+            }
+        });
+    }
+
+    private void finishReconnecting(final int generation, final Object bluetoothSocket) {
+        this.form.runOnUiThread(new Runnable() {
+            public void run() {
+                if (BluetoothConnectionBase.this.reconnectGeneration != generation) {
+                    BluetoothConnectionBase.this.closeQuietly(bluetoothSocket);
+                    return;
+                }
+                try {
+                    BluetoothConnectionBase.this.setConnection(bluetoothSocket);
+                    synchronized (BluetoothConnectionBase.this) {
+                        ByteArrayOutputStream pending = BluetoothConnectionBase.this.reconnectBuffer;
+                        BluetoothConnectionBase.this.reconnecting = false;
+                        BluetoothConnectionBase.this.reconnectBuffer = null;
+                        if (pending != null && pending.size() > 0) {
+                            BluetoothConnectionBase.this.write("Reconnected", pending.toByteArray());
+                        }
+                    }
+                    BluetoothConnectionBase.this.statistics.recordReconnect();
+                    Log.i(BluetoothConnectionBase.this.logTag, "Reconnected to Bluetooth device.");
+                    BluetoothConnectionBase.this.Reconnected();
+                } catch (IOException e) {
+                    BluetoothConnectionBase.this.closeConnection();
+                    BluetoothConnectionBase.this.startReconnecting(generation);
+                }
+            }
+        });
+    }
+
+    private synchronized boolean holdWhileReconnecting(byte[] bytes, int offset, int length) {
+        if (!this.reconnecting) {
+            return false;
+        }
+        ByteArrayOutputStream pending = this.reconnectBuffer;
+        if (pending != null) {
+            if (pending.size() + length <= this.sendBufferSize) {
+                pending.write(bytes, offset, length);
+            } else {
+                postSendQueueFull(pending.size());
+            }
+        }
+        return true;
+    }
+
     @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether to invoke SSP (Simple Secure Pairing), which is supported on devices with Bluetooth v2.1 or higher. When working with embedded Bluetooth devices, this property may need to be set to False. For Android 2.0-2.2, this property setting will be ignored.")
     public boolean Secure() {
         return this.secure;
@@ -142,6 +409,351 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         this.secure = secure;
     }
 
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether received bytes are read by a background thread and delivered in batches through the DataReceived event. While streaming, the background reader is the only consumer of received bytes and the Receive functions cannot be used. Bytes that have not been delivered when streaming stops are returned by the next Receive function.")
+    public boolean Streaming() {
+        return this.streaming;
+    }
+
+    @DesignerProperty(defaultValue = "False", editorType = "boolean")
+    @SimpleProperty
+    public void Streaming(boolean streaming) {
+        this.streaming = streaming;
+        if (!IsConnected()) {
+            return;
+        }
+        if (streaming) {
+            startStreaming();
+        } else {
+            stopStreaming();
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The number of received bytes that can be held while Streaming before the background reader waits for them to be consumed.")
+    public int StreamBufferSize() {
+        return this.streamBufferSize;
+    }
+
+    @DesignerProperty(defaultValue = "4096", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void StreamBufferSize(int size) {
+        if (size > 0) {
+            this.streamBufferSize = size;
+        }
+    }
+
+    @SimpleEvent(description = "Indicates that bytes have been received while Streaming is enabled. All bytes that arrived since the previous event are delivered together as a list of unsigned byte values.")
+    public void DataReceived(YailList bytes) {
+        EventDispatcher.dispatchEvent(this, "DataReceived", bytes);
+    }
+
+    private synchronized void startStreaming() {
+        if (this.streamReaderThread == null && this.inputStream != null) {
+            byte[] pending = this.frameReader.takePending();
+            ByteRingBuffer buffer = new ByteRingBuffer(Math.max(this.streamBufferSize, pending.length));
+            buffer.offer(pending, 0, pending.length);
+            Thread thread = new Thread(new StreamReader(this.inputStream, buffer), "BluetoothStreamReader");
+            thread.setDaemon(true);
+            this.streamBuffer = buffer;
+            this.streamReaderThread = thread;
+            thread.start();
+            if (pending.length > 0) {
+                scheduleDataReceived();
+            }
+        }
+    }
+
+    private synchronized void stopStreaming() {
+        Thread thread = this.streamReaderThread;
+        ByteRingBuffer buffer = this.streamBuffer;
+        this.streamReaderThread = null;
+        this.streamBuffer = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Log.w(this.logTag, "Interrupted while stopping the stream reader.");
+            }
+        }
+        if (buffer != null) {
+            byte[] bytes = buffer.drain();
+            buffer.close();
+            this.frameReader.append(bytes, 0, bytes.length);
+        }
+    }
+
+    private void scheduleDataReceived() {
+        if (this.form != null && this.dataReceivedPending.compareAndSet(false, true)) {
+            this.form.runOnUiThread(new Runnable() {
+                public void run() {
+                    BluetoothConnectionBase.this.dataReceivedPending.set(false);
+                    ByteRingBuffer buffer = BluetoothConnectionBase.this.streamBuffer;
+                    if (buffer != null) {
+                        byte[] bytes = buffer.drain();
+                        if (bytes.length > 0) {
+                            BluetoothConnectionBase.this.statistics.recordReceived(bytes.length);
+                            BluetoothConnectionBase.this.DataReceived(YailList.makeByteList(bytes, true));
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private void postError(final String functionName, final int errorNumber, final Object... messageArgs) {
+        final Object bluetoothSocket = this.connectedBluetoothSocket;
+        this.form.runOnUiThread(new Runnable() {
+            public void run() {
+                if (bluetoothSocket != null && BluetoothConnectionBase.this.connectedBluetoothSocket == bluetoothSocket) {
+                    BluetoothConnectionBase.this.linkFailed(functionName, errorNumber, messageArgs);
+                }
+            }
+        });
+    }
+
+    private final class StreamReader implements Runnable {
+        private final ByteRingBuffer buffer;
+        private final InputStream in;
+
+        StreamReader(InputStream in, ByteRingBuffer buffer) {
+            this.in = in;
+            this.buffer = buffer;
+        }
+
+        public void run() {
+            byte[] chunk = new byte[BluetoothConnectionBase.STREAM_CHUNK_SIZE];
+            try {
+                while (BluetoothConnectionBase.this.streamReaderThread == Thread.currentThread()) {
+                    int length = Math.min(Math.min(this.in.available(), this.buffer.capacity() - this.buffer.available()), chunk.length);
+                    if (length <= 0) {
+                        Thread.sleep(BluetoothConnectionBase.STREAM_POLL_INTERVAL);
+                    } else {
+                        int numBytesRead = this.in.read(chunk, 0, length);
+                        if (numBytesRead == -1) {
+                            if (BluetoothConnectionBase.this.streamReaderThread == Thread.currentThread()) {
+                                BluetoothConnectionBase.this.linkFailed("DataReceived", ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
+                            }
+                            return;
+                        }
+                        this.buffer.write(chunk, 0, numBytesRead);
+                        BluetoothConnectionBase.this.scheduleDataReceived();
+                    }
+                }
+            } catch (IOException e) {
+                if (BluetoothConnectionBase.this.streamReaderThread == Thread.currentThread()) {
+                    BluetoothConnectionBase.this.linkFailed("DataReceived", ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+                }
+            } catch (InterruptedException e2) {
+            }
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether sent data is queued and written by a background thread, which combines small sends into larger writes according to FlushInterval and FlushThreshold.")
+    public boolean AsynchronousSend() {
+        return this.asynchronousSend;
+    }
+
+    @DesignerProperty(defaultValue = "False", editorType = "boolean")
+    @SimpleProperty
+    public void AsynchronousSend(boolean asynchronousSend) {
+        this.asynchronousSend = asynchronousSend;
+        if (!IsConnected()) {
+            return;
+        }
+        if (asynchronousSend) {
+            startSending();
+        } else {
+            stopSending();
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The number of bytes that can wait to be sent when AsynchronousSend is enabled. Data that does not fit in the remaining space is not sent and the SendQueueFull event is raised. A single send larger than SendBufferSize is passed through the queue in pieces, waiting for each piece to be taken by the writer.")
+    public int SendBufferSize() {
+        return this.sendBufferSize;
+    }
+
+    @DesignerProperty(defaultValue = "8192", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void SendBufferSize(int size) {
+        if (size > 0) {
+            this.sendBufferSize = size;
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The longest time, in milliseconds, that queued data is held back to be combined with later sends when AsynchronousSend is enabled. If 0, queued data is written as soon as the writer is free.")
+    public int FlushInterval() {
+        return this.flushInterval;
+    }
+
+    @DesignerProperty(defaultValue = "0", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void FlushInterval(int milliseconds) {
+        if (milliseconds >= 0) {
+            this.flushInterval = milliseconds;
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The number of queued bytes that causes a write without waiting for the rest of FlushInterval when AsynchronousSend is enabled.")
+    public int FlushThreshold() {
+        return this.flushThreshold;
+    }
+
+    @DesignerProperty(defaultValue = "990", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void FlushThreshold(int bytes) {
+        if (bytes > 0) {
+            this.flushThreshold = Math.min(bytes, MAX_WRITE_SIZE);
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The number of bytes waiting to be sent when AsynchronousSend is enabled.")
+    public int BytesQueuedToSend() {
+        ByteRingBuffer buffer = this.sendBuffer;
+        if (buffer == null) {
+            return 0;
+        }
+        return buffer.available();
+    }
+
+    @SimpleEvent(description = "Indicates that data could not be sent because the send queue was full. The data was not queued; bytesQueued is the number of bytes still waiting to be sent.")
+    public void SendQueueFull(int bytesQueued) {
+        EventDispatcher.dispatchEvent(this, "SendQueueFull", Integer.valueOf(bytesQueued));
+    }
+
+    private synchronized void startSending() {
+        if (this.sendWriterThread == null && this.outputStream != null) {
+            ByteRingBuffer buffer = new ByteRingBuffer(this.sendBufferSize);
+            SendWriter writer = new SendWriter(this.outputStream, buffer);
+            Thread thread = new Thread(writer, "BluetoothSendWriter");
+            thread.setDaemon(true);
+            this.sendBuffer = buffer;
+            this.sendWriter = writer;
+            this.sendWriterThread = thread;
+            thread.start();
+        }
+    }
+
+    private synchronized void stopSending() {
+        Thread thread = this.sendWriterThread;
+        SendWriter writer = this.sendWriter;
+        ByteRingBuffer buffer = this.sendBuffer;
+        this.sendWriterThread = null;
+        this.sendWriter = null;
+        this.sendBuffer = null;
+        if (buffer != null) {
+            buffer.close();
+        }
+        if (thread != null) {
+            try {
+                thread.join(SEND_DRAIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Log.w(this.logTag, "Interrupted while waiting for queued data to be sent.");
+            }
+            if (thread.isAlive()) {
+                Log.w(this.logTag, "Queued data was not sent within " + SEND_DRAIN_TIMEOUT + " ms.");
+                thread.interrupt();
+            } else if (writer.failure != null) {
+                bluetoothError("AsynchronousSend", ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, writer.failure.getMessage());
+            }
+        }
+    }
+
+    private void postSendQueueFull(final int bytesQueued) {
+        this.form.runOnUiThread(new Runnable() {
+            public void run() {
+                BluetoothConnectionBase.this.SendQueueFull(bytesQueued);
+            }
+        });
+    }
+
+    private final class SendWriter implements Runnable {
+        private final ByteRingBuffer buffer;
+        private volatile IOException failure;
+        private final OutputStream out;
+
+        SendWriter(OutputStream out, ByteRingBuffer buffer) {
+            this.out = out;
+            this.buffer = buffer;
+        }
+
+        public void run() {
+            byte[] chunk = new byte[BluetoothConnectionBase.MAX_WRITE_SIZE];
+            try {
+                while (true) {
+                    int length = this.buffer.read(chunk, 0, chunk.length);
+                    if (length == -1) {
+                        return;
+                    }
+                    int interval = BluetoothConnectionBase.this.flushInterval;
+                    if (interval > 0) {
+                        int threshold = BluetoothConnectionBase.this.flushThreshold;
+                        long deadline = System.currentTimeMillis() + ((long) interval);
+                        while (length < threshold) {
+                            long remaining = deadline - System.currentTimeMillis();
+                            if (remaining <= 0) {
+                                break;
+                            }
+                            int numBytesRead = this.buffer.read(chunk, length, chunk.length - length, remaining);
+                            if (numBytesRead == -1) {
+                                break;
+                            }
+                            length += numBytesRead;
+                        }
+                    }
+                    long start = System.nanoTime();
+                    this.out.write(chunk, 0, length);
+                    this.out.flush();
+                    BluetoothConnectionBase.this.statistics.recordTransmission(System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                this.buffer.close();
+                if (BluetoothConnectionBase.this.sendWriterThread == Thread.currentThread()) {
+                    BluetoothConnectionBase.this.linkFailed("AsynchronousSend", ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
+                } else {
+                    this.failure = e;
+                }
+            } catch (InterruptedException e2) {
+            }
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Counters for this connection as a list of name and value pairs: bytes and frames received, bytes and frames sent, read and write calls, writes made to the connection, time spent blocked in reads and writes with latency percentiles, the send queue depth and the number of lost and re-established connections.")
+    public List<Object> Statistics() {
+        return this.statistics.toList(BytesQueuedToSend());
+    }
+
+    @SimpleFunction(description = "Reset all counters reported by Statistics to zero.")
+    public void ResetStatistics() {
+        this.statistics.reset();
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The interval, in milliseconds, at which the StatisticsSampled event is raised. If 0, the event is not raised.")
+    public int StatisticsInterval() {
+        return this.statisticsInterval;
+    }
+
+    @DesignerProperty(defaultValue = "0", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void StatisticsInterval(int milliseconds) {
+        if (milliseconds >= 0) {
+            this.statisticsInterval = milliseconds;
+            if (this.form != null) {
+                if (this.statisticsHandler == null) {
+                    this.statisticsHandler = new Handler();
+                }
+                this.statisticsHandler.removeCallbacks(this.statisticsSampler);
+                if (milliseconds > 0) {
+                    this.statisticsHandler.postDelayed(this.statisticsSampler, (long) milliseconds);
+                }
+            }
+        }
+    }
+
+    @SimpleEvent(description = "Raised every StatisticsInterval milliseconds with the current value of Statistics.")
+    public void StatisticsSampled(List<Object> statistics) {
+        EventDispatcher.dispatchEvent(this, "StatisticsSampled", statistics);
+    }
+
     @SimpleProperty(category = PropertyCategory.BEHAVIOR)
     public boolean HighByteFirst() {
         return this.byteOrder == ByteOrder.BIG_ENDIAN;
@@ -190,14 +802,16 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
 
     @SimpleFunction(description = "Send text to the connected Bluetooth device.")
     public void SendText(String text) {
-        byte[] bytes;
+        write("SendText", encodeText(text));
+    }
+
+    protected final byte[] encodeText(String text) {
         try {
-            bytes = text.getBytes(this.encoding);
+            return text.getBytes(this.encoding);
         } catch (UnsupportedEncodingException e) {
             Log.w(this.logTag, "UnsupportedEncodingException: " + e.getMessage());
-            bytes = text.getBytes();
+            return text.getBytes();
         }
-        write("SendText", bytes);
     }
 
     @SimpleFunction(description = "Send a 1-byte number to the connected Bluetooth device.")
@@ -280,6 +894,13 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     @SimpleFunction(description = "Send a list of byte values to the connected Bluetooth device.")
     public void SendBytes(YailList list) {
         String functionName = "SendBytes";
+        byte[] bytes = toBytes(functionName, list);
+        if (bytes != null) {
+            write(functionName, bytes);
+        }
+    }
+
+    protected final byte[] toBytes(String functionName, YailList list) {
         Object[] array = list.toArray();
         byte[] bytes = new byte[array.length];
         int i = 0;
@@ -292,24 +913,47 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
                     i++;
                 } else {
                     bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_COULD_NOT_FIT_ELEMENT_IN_BYTE, Integer.valueOf(i + 1));
-                    return;
+                    return null;
                 }
             } catch (NumberFormatException e) {
                 bluetoothError(functionName, 513, Integer.valueOf(i + 1));
-                return;
+                return null;
+            }
+        }
+        return bytes;
+    }
+
+    @SimpleFunction(description = "Send a record of numbers to the connected Bluetooth device in a single write. Each character of the format describes one field: b/B for a signed/unsigned 1-byte number, h/H for 2 bytes, i/I for 4 bytes, l for a signed 8-byte number, f/d for a 4/8-byte floating point number and x for a padding byte. A character may be preceded by a repeat count, as in \"3h\". Multi-byte fields follow HighByteFirst.")
+    public void SendRecord(String format, YailList values) {
+        String functionName = "SendRecord";
+        try {
+            RecordFormat recordFormat = RecordFormat.compile(format);
+            try {
+                byte[] record = recordFormat.encode(values.toArray(), this.byteOrder);
+                write(functionName, record, 0, record.length, 1);
+            } catch (IllegalArgumentException e) {
+                bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_COULD_NOT_ENCODE_RECORD, e.getMessage());
             }
+        } catch (IllegalArgumentException e2) {
+            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_INVALID_RECORD_FORMAT, format);
         }
-        write(functionName, bytes);
     }
 
     protected void write(String functionName, byte b) {
+        if (this.sendBuffer != null || this.reconnecting) {
+            write(functionName, new byte[]{b});
+            return;
+        }
         if (IsConnected()) {
+            this.statistics.recordWrite(1, b == this.delimiter ? 1 : 0);
             try {
+                long start = System.nanoTime();
                 this.outputStream.write(b);
                 this.outputStream.flush();
+                this.statistics.recordTransmission(System.nanoTime() - start);
                 return;
             } catch (IOException e) {
-                bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
+                linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
                 return;
             }
         }
@@ -317,13 +961,54 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     }
 
     protected void write(String functionName, byte[] bytes) {
+        write(functionName, bytes, 0, bytes.length);
+    }
+
+    protected void write(String functionName, byte[] bytes, int offset, int length) {
+        write(functionName, bytes, offset, length, countFrames(bytes, offset, length));
+    }
+
+    private int countFrames(byte[] bytes, int offset, int length) {
+        int frames = 0;
+        byte delimiter = this.delimiter;
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] == delimiter) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    private void write(String functionName, byte[] bytes, int offset, int length, int frames) {
+        if (holdWhileReconnecting(bytes, offset, length)) {
+            return;
+        }
+        ByteRingBuffer buffer = this.sendBuffer;
+        if (buffer != null) {
+            if (length > buffer.capacity()) {
+                try {
+                    buffer.write(bytes, offset, length);
+                    this.statistics.recordWrite(length, frames);
+                } catch (InterruptedException e) {
+                    Log.w(this.logTag, "Interrupted while queueing data to send.");
+                }
+            } else if (buffer.offer(bytes, offset, length)) {
+                this.statistics.recordWrite(length, frames);
+            } else {
+                postSendQueueFull(buffer.available());
+            }
+            return;
+        }
         if (IsConnected()) {
+            this.statistics.recordWrite(length, frames);
             try {
-                this.outputStream.write(bytes);
+                long start = System.nanoTime();
+                this.outputStream.write(bytes, offset, length);
                 this.outputStream.flush();
+                this.statistics.recordTransmission(System.nanoTime() - start);
                 return;
             } catch (IOException e) {
-                bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
+                linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
                 return;
             }
         }
@@ -334,9 +1019,13 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     public int BytesAvailableToReceive() {
         int i = 0;
         String functionName = "BytesAvailableToReceive";
+        ByteRingBuffer buffer = this.streamBuffer;
+        if (buffer != null) {
+            return this.frameReader.pending() + buffer.available();
+        }
         if (IsConnected()) {
             try {
-                i = this.inputStream.available();
+                i = this.frameReader.pending() + this.inputStream.available();
             } catch (IOException e) {
                 bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
             }
@@ -349,6 +1038,9 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     @SimpleFunction(description = "Receive text from the connected Bluetooth device. If numberOfBytes is less than 0, read until a delimiter byte value is received.")
     public String ReceiveText(int numberOfBytes) {
         byte[] bytes = read("ReceiveText", numberOfBytes);
+        if (bytes.length == 0) {
+            return "";
+        }
         if (numberOfBytes >= 0) {
             return new String(bytes, this.encoding);
         }
@@ -360,6 +1052,21 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         }
     }
 
+    @SimpleFunction(description = "Receive up to maxFrames pieces of text, each terminated by the delimiter byte, from the connected Bluetooth device. Waits for the first piece, then returns it together with any further complete pieces that have already been received.")
+    public List<String> ReceiveFrames(int maxFrames) {
+        List<String> frames = new ArrayList();
+        for (byte[] bytes : readFrames("ReceiveFrames", maxFrames)) {
+            int length = bytes[bytes.length - 1] == this.delimiter ? bytes.length - 1 : bytes.length;
+            try {
+                frames.add(new String(bytes, 0, length, this.encoding));
+            } catch (UnsupportedEncodingException e) {
+                Log.w(this.logTag, "UnsupportedEncodingException: " + e.getMessage());
+                frames.add(new String(bytes, 0, length));
+            }
+        }
+        return frames;
+    }
+
     @SimpleFunction(description = "Receive a signed 1-byte number from the connected Bluetooth device.")
     public int ReceiveSigned1ByteNumber() {
         byte[] bytes = read("ReceiveSigned1ByteNumber", 1);
@@ -426,64 +1133,215 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
         return (((((long) bytes[0]) & 255) | ((((long) bytes[1]) & 255) << 8)) | ((((long) bytes[2]) & 255) << 16)) | ((((long) bytes[3]) & 255) << 24);
     }
 
-    @SimpleFunction(description = "Receive multiple signed byte values from the connected Bluetooth device. If numberOfBytes is less than 0, read until a delimiter byte value is received.")
-    public List<Integer> ReceiveSignedBytes(int numberOfBytes) {
-        byte[] bytes = read("ReceiveSignedBytes", numberOfBytes);
-        List<Integer> list = new ArrayList();
-        for (int n : bytes) {
-            list.add(Integer.valueOf(n));
+    @SimpleFunction(description = "Receive a record of numbers from the connected Bluetooth device with a single read and return its fields as a list. The format is described in SendRecord.")
+    public List<Object> ReceiveRecord(String format) {
+        String functionName = "ReceiveRecord";
+        try {
+            RecordFormat recordFormat = RecordFormat.compile(format);
+            byte[] bytes = read(functionName, recordFormat.size());
+            if (bytes.length == recordFormat.size()) {
+                return Arrays.asList(recordFormat.decode(bytes, this.byteOrder));
+            }
+        } catch (IllegalArgumentException e) {
+            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_INVALID_RECORD_FORMAT, format);
         }
-        return list;
+        return new ArrayList();
+    }
+
+    @SimpleFunction(description = "Receive multiple signed byte values from the connected Bluetooth device. If numberOfBytes is less than 0, read until a delimiter byte value is received.")
+    public YailList ReceiveSignedBytes(int numberOfBytes) {
+        return YailList.makeByteList(read("ReceiveSignedBytes", numberOfBytes), false);
     }
 
     @SimpleFunction(description = "Receive multiple unsigned byte values from the connected Bluetooth device. If numberOfBytes is less than 0, read until a delimiter byte value is received.")
-    public List<Integer> ReceiveUnsignedBytes(int numberOfBytes) {
-        byte[] bytes = read("ReceiveUnsignedBytes", numberOfBytes);
-        List<Integer> list = new ArrayList();
-        for (byte b : bytes) {
-            list.add(Integer.valueOf(b & 255));
-        }
-        return list;
+    public YailList ReceiveUnsignedBytes(int numberOfBytes) {
+        return YailList.makeByteList(read("ReceiveUnsignedBytes", numberOfBytes), true);
     }
 
     protected final byte[] read(String functionName, int numberOfBytes) {
-        if (IsConnected()) {
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            if (numberOfBytes >= 0) {
-                byte[] bytes = new byte[numberOfBytes];
-                int totalBytesRead = 0;
-                while (totalBytesRead < numberOfBytes) {
-                    try {
-                        int numBytesRead = this.inputStream.read(bytes, totalBytesRead, bytes.length - totalBytesRead);
-                        if (numBytesRead == -1) {
-                            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
-                            break;
-                        }
-                        totalBytesRead += numBytesRead;
-                    } catch (IOException e) {
-                        bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
-                    }
+        InputStream in = receiveStream(functionName, null);
+        if (in == null) {
+            return new byte[0];
+        }
+        long start = System.nanoTime();
+        try {
+            if (numberOfBytes < 0) {
+                byte[] frame = this.frameReader.readFrame(in, this.delimiter);
+                this.statistics.recordRead(frame.length, System.nanoTime() - start);
+                if (this.frameReader.isEndOfStream()) {
+                    linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
+                } else {
+                    this.statistics.recordFrames(1);
                 }
-                buffer.write(bytes, 0, totalBytesRead);
-            } else {
-                byte value;
-                do {
-                    value = this.inputStream.read();
-                    if (value == (byte) -1) {
-                        bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
-                        break;
-                    }
-                    try {
-                        buffer.write(value);
-                    } catch (IOException e2) {
-                        bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e2.getMessage());
-                    }
-                } while (value != this.delimiter);
+                return frame;
+            }
+            byte[] bytes = new byte[numberOfBytes];
+            int totalBytesRead = readFully(functionName, in, bytes, 0, numberOfBytes, start);
+            if (totalBytesRead >= numberOfBytes) {
+                return bytes;
+            }
+            byte[] partial = new byte[totalBytesRead];
+            System.arraycopy(bytes, 0, partial, 0, totalBytesRead);
+            return partial;
+        } catch (IOException e) {
+            linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+            return new byte[0];
+        }
+    }
+
+    protected final int read(String functionName, byte[] buffer, int offset, int length) {
+        return read(functionName, null, buffer, offset, length);
+    }
+
+    protected final int read(String functionName, Object owner, byte[] buffer, int offset, int length) {
+        InputStream in = receiveStream(functionName, owner);
+        if (in == null) {
+            return 0;
+        }
+        try {
+            return readFully(functionName, in, buffer, offset, length, System.nanoTime());
+        } catch (IOException e) {
+            linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int readFully(String functionName, InputStream in, byte[] buffer, int offset, int length, long start) throws IOException {
+        int totalBytesRead = this.frameReader.readFully(in, buffer, offset, length);
+        this.statistics.recordRead(totalBytesRead, System.nanoTime() - start);
+        if (totalBytesRead < length) {
+            linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
+        }
+        return totalBytesRead;
+    }
+
+    protected final List<byte[]> readFrames(String functionName, int maxFrames) {
+        InputStream in = receiveStream(functionName, null);
+        if (in == null) {
+            return new ArrayList();
+        }
+        long start = System.nanoTime();
+        try {
+            List<byte[]> frames = this.frameReader.readFrames(in, this.delimiter, maxFrames);
+            int totalBytesRead = 0;
+            for (byte[] frame : frames) {
+                totalBytesRead += frame.length;
+            }
+            this.statistics.recordRead(totalBytesRead, System.nanoTime() - start);
+            this.statistics.recordFrames(this.frameReader.isEndOfStream() ? Math.max(frames.size() - 1, 0) : frames.size());
+            if (this.frameReader.isEndOfStream()) {
+                linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_END_OF_STREAM, new Object[0]);
+            }
+            return frames;
+        } catch (IOException e) {
+            linkFailed(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_READ, e.getMessage());
+            return new ArrayList();
+        }
+    }
+
+    protected final int available(Object owner) {
+        if (this.receiveOwner != owner || this.streamBuffer != null || !IsConnected()) {
+            return -1;
+        }
+        try {
+            return this.frameReader.pending() + this.inputStream.available();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    protected final synchronized boolean claimReceive(Object owner) {
+        if (this.receiveOwner != null && this.receiveOwner != owner) {
+            return false;
+        }
+        this.receiveOwner = owner;
+        return true;
+    }
+
+    protected final synchronized void releaseReceive(Object owner) {
+        if (this.receiveOwner == owner) {
+            this.receiveOwner = null;
+        }
+    }
+
+    private InputStream receiveStream(String functionName, Object owner) {
+        Object currentOwner = this.receiveOwner;
+        if (currentOwner != null && currentOwner != owner) {
+            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_RECEIVE_IN_USE, new Object[0]);
+            return null;
+        }
+        if (this.streamBuffer != null) {
+            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_RECEIVING_WHILE_STREAMING, new Object[0]);
+            return null;
+        }
+        if (IsConnected()) {
+            return this.inputStream;
+        }
+        if (!this.reconnecting) {
+            bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE, new Object[0]);
+        }
+        return null;
+    }
+
+    protected final void closeQuietly(Object bluetoothSocket) {
+        try {
+            BluetoothReflection.closeBluetoothSocket(bluetoothSocket);
+        } catch (IOException e) {
+            Log.w(this.logTag, "Error while closing bluetooth socket: " + e.getMessage());
+        }
+    }
+
+    @SimpleFunction(description = "Close the additional connection with the specified handle.")
+    public void CloseConnection(int handle) {
+        this.connectionPool.close(handle);
+    }
+
+    @SimpleFunction(description = "Send text over the additional connection with the specified handle.")
+    public void SendTextToConnection(int handle, String text) {
+        writeToConnection("SendTextToConnection", handle, encodeText(text));
+    }
+
+    @SimpleFunction(description = "Send a list of byte values over the additional connection with the specified handle.")
+    public void SendBytesToConnection(int handle, YailList list) {
+        String functionName = "SendBytesToConnection";
+        byte[] bytes = toBytes(functionName, list);
+        if (bytes != null) {
+            writeToConnection(functionName, handle, bytes);
+        }
+    }
+
+    private void writeToConnection(String functionName, int handle, byte[] bytes) {
+        if (this.connectionPool.contains(handle)) {
+            try {
+                this.connectionPool.write(handle, bytes);
+                return;
+            } catch (IOException e) {
+                bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_WRITE, e.getMessage());
+                return;
             }
-            return buffer.toByteArray();
         }
         bluetoothError(functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE, new Object[0]);
-        return new byte[0];
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The handles of the open additional connections.")
+    public List<Integer> ConnectionHandles() {
+        return this.connectionPool.getHandles();
+    }
+
+    @SimpleFunction(description = "Returns the address of the additional connection with the specified handle, or an empty text if there is no such connection.")
+    public String ConnectionAddress(int handle) {
+        String address = this.connectionPool.getAddress(handle);
+        return address == null ? "" : address;
+    }
+
+    @SimpleEvent(description = "Indicates that bytes have been received on the additional connection with the specified handle. The bytes are given as a list of unsigned byte values.")
+    public void ConnectionDataReceived(int handle, YailList bytes) {
+        EventDispatcher.dispatchEvent(this, "ConnectionDataReceived", Integer.valueOf(handle), bytes);
+    }
+
+    @SimpleEvent(description = "Indicates that the additional connection with the specified handle was closed by the remote device, was lost or could not be opened.")
+    public void ConnectionClosed(int handle) {
+        EventDispatcher.dispatchEvent(this, "ConnectionClosed", Integer.valueOf(handle));
     }
 
     public void onDestroy() {
@@ -495,8 +1353,10 @@ public abstract class BluetoothConnectionBase extends AndroidNonvisibleComponent
     }
 
     private void prepareToDie() {
-        if (this.connectedBluetoothSocket != null) {
-            Disconnect();
+        this.connectionPool.closeAll();
+        if (this.statisticsHandler != null) {
+            this.statisticsHandler.removeCallbacks(this.statisticsSampler);
         }
+        Disconnect();
     }
 }
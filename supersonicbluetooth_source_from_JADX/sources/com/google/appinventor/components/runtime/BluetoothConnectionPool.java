@@ -0,0 +1,187 @@
+package com.google.appinventor.components.runtime;
+
+import android.util.Log;
+import com.google.appinventor.components.runtime.util.BluetoothReflection;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+final class BluetoothConnectionPool {
+    private static final String LOG_TAG = "BluetoothConnectionPool";
+    private static final int READ_CHUNK_SIZE = 1024;
+    private static final ExecutorService executor = Executors.newCachedThreadPool(new PoolThreadFactory());
+    private final Listener listener;
+    private int nextHandle = 1;
+    private final Set<Integer> pending = new HashSet();
+    private final Map<Integer, Session> sessions = new LinkedHashMap();
+
+    interface Listener {
+        void connectionClosed(int i, String str);
+
+        void dataReceived(int i, byte[] bArr);
+    }
+
+    private static class PoolThreadFactory implements ThreadFactory {
+        private int count;
+
+        private PoolThreadFactory() {
+        }
+
+        public synchronized Thread newThread(Runnable r) {
+            this.count++;
+            Thread thread = new Thread(r, "BluetoothPool-" + this.count);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private final class Session implements Runnable {
+        final String address;
+        final int handle;
+        final InputStream inputStream;
+        final OutputStream outputStream;
+        final Object socket;
+
+        Session(int handle, String address, Object socket) throws IOException {
+            this.handle = handle;
+            this.address = address;
+            this.socket = socket;
+            this.inputStream = BluetoothReflection.getInputStream(socket);
+            this.outputStream = new BufferedOutputStream(BluetoothReflection.getOutputStream(socket));
+        }
+
+        public void run() {
+            String reason = null;
+            byte[] chunk = new byte[BluetoothConnectionPool.READ_CHUNK_SIZE];
+            try {
+                while (true) {
+                    int numBytesRead = this.inputStream.read(chunk, 0, chunk.length);
+                    if (numBytesRead == -1) {
+                        break;
+                    }
+                    byte[] bytes = new byte[numBytesRead];
+                    System.arraycopy(chunk, 0, bytes, 0, numBytesRead);
+                    BluetoothConnectionPool.this.listener.dataReceived(this.handle, bytes);
+                }
+            } catch (IOException e) {
+                reason = e.getMessage();
+            }
+            if (BluetoothConnectionPool.this.remove(this.handle) != null) {
+                close();
+                BluetoothConnectionPool.this.listener.connectionClosed(this.handle, reason);
+            }
+        }
+
+        void close() {
+            try {
+                BluetoothReflection.closeBluetoothSocket(this.socket);
+            } catch (IOException e) {
+                Log.w(BluetoothConnectionPool.LOG_TAG, "Error while closing connection " + this.handle + ": " + e.getMessage());
+            }
+        }
+    }
+
+    BluetoothConnectionPool(Listener listener) {
+        this.listener = listener;
+    }
+
+    static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    synchronized int reserve() {
+        int handle = this.nextHandle;
+        this.nextHandle++;
+        this.pending.add(Integer.valueOf(handle));
+        return handle;
+    }
+
+    synchronized boolean release(int handle) {
+        return this.pending.remove(Integer.valueOf(handle));
+    }
+
+    int add(String address, Object socket) throws IOException {
+        int handle = reserve();
+        add(handle, address, socket);
+        return handle;
+    }
+
+    boolean add(int handle, String address, Object socket) throws IOException {
+        Session session;
+        synchronized (this) {
+            if (!this.pending.remove(Integer.valueOf(handle))) {
+                return false;
+            }
+            session = new Session(handle, address, socket);
+            this.sessions.put(Integer.valueOf(handle), session);
+        }
+        executor.execute(session);
+        return true;
+    }
+
+    boolean close(int handle) {
+        Session session = remove(handle);
+        if (session == null) {
+            return release(handle);
+        }
+        session.close();
+        return true;
+    }
+
+    void closeAll() {
+        List<Session> closing;
+        synchronized (this) {
+            closing = new ArrayList(this.sessions.values());
+            this.sessions.clear();
+            this.pending.clear();
+        }
+        for (Session session : closing) {
+            session.close();
+        }
+    }
+
+    synchronized boolean contains(int handle) {
+        return this.sessions.containsKey(Integer.valueOf(handle));
+    }
+
+    synchronized String getAddress(int handle) {
+        Session session = (Session) this.sessions.get(Integer.valueOf(handle));
+        return session == null ? null : session.address;
+    }
+
+    synchronized List<Integer> getHandles() {
+        return new ArrayList(this.sessions.keySet());
+    }
+
+    synchronized int size() {
+        return this.sessions.size();
+    }
+
+    void write(int handle, byte[] bytes) throws IOException {
+        Session session;
+        synchronized (this) {
+            session = (Session) this.sessions.get(Integer.valueOf(handle));
+        }
+        if (session == null) {
+            throw new IOException("No connection with handle " + handle);
+        }
+        synchronized (session) {
+            session.outputStream.write(bytes);
+            session.outputStream.flush();
+        }
+    }
+
+    private synchronized Session remove(int handle) {
+        return (Session) this.sessions.remove(Integer.valueOf(handle));
+    }
+}
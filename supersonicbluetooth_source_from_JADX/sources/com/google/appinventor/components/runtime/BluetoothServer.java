@@ -3,6 +3,7 @@ package com.google.appinventor.components.runtime;
 import android.os.Handler;
 import android.util.Log;
 import com.google.appinventor.components.annotations.DesignerComponent;
+import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
 import com.google.appinventor.components.annotations.SimpleEvent;
 import com.google.appinventor.components.annotations.SimpleFunction;
@@ -25,9 +26,11 @@ public final class BluetoothServer extends BluetoothConnectionBase {
     private static final String SPP_UUID = "00001101-0000-1000-8000-00805F9B34FB";
     private final Handler androidUIHandler = new Handler();
     private final AtomicReference<Object> arBluetoothServerSocket = new AtomicReference();
+    private int maxConnections;
 
     public BluetoothServer(ComponentContainer container) {
         super(container, "BluetoothServer");
+        MaxConnections(7);
     }
 
     @SimpleFunction(description = "Accept an incoming connection with the Serial Port Profile (SPP).")
@@ -40,7 +43,34 @@ public final class BluetoothServer extends BluetoothConnectionBase {
         accept("AcceptConnectionWithUUID", serviceName, uuid);
     }
 
-    private void accept(final String functionName, String name, String uuidString) {
+    @SimpleFunction(description = "Keep accepting incoming connections with the Serial Port Profile (SPP) until StopAccepting is called. Each accepted connection gets a handle, is reported by the ClientConnected event and can be used with SendTextToConnection, SendBytesToConnection and CloseConnection.")
+    public void AcceptConnections(String serviceName) {
+        accept("AcceptConnections", serviceName, SPP_UUID, true);
+    }
+
+    @SimpleFunction(description = "Keep accepting incoming connections with a specific UUID until StopAccepting is called.")
+    public void AcceptConnectionsWithUUID(String serviceName, String uuid) {
+        accept("AcceptConnectionsWithUUID", serviceName, uuid, true);
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The largest number of connections accepted by AcceptConnections that are kept open at the same time. Further incoming connections are closed until one of the open connections is closed.")
+    public int MaxConnections() {
+        return this.maxConnections;
+    }
+
+    @DesignerProperty(defaultValue = "7", editorType = "non_negative_integer")
+    @SimpleProperty
+    public void MaxConnections(int maxConnections) {
+        if (maxConnections > 0) {
+            this.maxConnections = maxConnections;
+        }
+    }
+
+    private void accept(String functionName, String name, String uuidString) {
+        accept(functionName, name, uuidString, false);
+    }
+
+    private void accept(final String functionName, String name, String uuidString, boolean persistent) {
         Object bluetoothAdapter = BluetoothReflection.getBluetoothAdapter();
         if (bluetoothAdapter == null) {
             this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_NOT_AVAILABLE, new Object[0]);
@@ -55,6 +85,15 @@ public final class BluetoothServer extends BluetoothConnectionBase {
                         bluetoothServerSocket = BluetoothReflection.listenUsingInsecureRfcommWithServiceRecord(bluetoothAdapter, name, uuid);
                     }
                     this.arBluetoothServerSocket.set(bluetoothServerSocket);
+                    if (persistent) {
+                        final Object acceptingServerSocket = bluetoothServerSocket;
+                        AsynchUtil.runAsynchronously(new Runnable() {
+                            public void run() {
+                                BluetoothServer.this.acceptConnections(functionName, acceptingServerSocket);
+                            }
+                        });
+                        return;
+                    }
                     AsynchUtil.runAsynchronously(new Runnable() {
 
                         /* renamed from: com.google.appinventor.components.runtime.BluetoothServer$1$1 */
@@ -106,6 +145,40 @@ public final class BluetoothServer extends BluetoothConnectionBase {
         }
     }
 
+    private void acceptConnections(final String functionName, Object bluetoothServerSocket) {
+        while (this.arBluetoothServerSocket.get() == bluetoothServerSocket) {
+            try {
+                final Object acceptedBluetoothSocket = BluetoothReflection.accept(bluetoothServerSocket);
+                this.androidUIHandler.post(new Runnable() {
+                    public void run() {
+                        BluetoothServer.this.addConnection(functionName, acceptedBluetoothSocket);
+                    }
+                });
+            } catch (IOException e) {
+                if (this.arBluetoothServerSocket.compareAndSet(bluetoothServerSocket, null)) {
+                    closeServerSocket(bluetoothServerSocket);
+                    this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_ACCEPT, new Object[0]);
+                }
+                return;
+            }
+        }
+    }
+
+    private void addConnection(String functionName, Object acceptedBluetoothSocket) {
+        String address = BluetoothReflection.getBluetoothDeviceAddress(BluetoothReflection.getBluetoothSocketRemoteDevice(acceptedBluetoothSocket));
+        if (this.connectionPool.size() >= this.maxConnections) {
+            Log.w(this.logTag, "Refusing connection from " + address + ": " + this.maxConnections + " connections are already open.");
+            closeQuietly(acceptedBluetoothSocket);
+            return;
+        }
+        try {
+            ClientConnected(this.connectionPool.add(address, acceptedBluetoothSocket), address);
+        } catch (IOException e) {
+            closeQuietly(acceptedBluetoothSocket);
+            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_BLUETOOTH_UNABLE_TO_ACCEPT, new Object[0]);
+        }
+    }
+
     @SimpleProperty(category = PropertyCategory.BEHAVIOR)
     public final boolean IsAccepting() {
         return this.arBluetoothServerSocket.get() != null;
@@ -115,11 +188,15 @@ public final class BluetoothServer extends BluetoothConnectionBase {
     public void StopAccepting() {
         Object bluetoothServerSocket = this.arBluetoothServerSocket.getAndSet(null);
         if (bluetoothServerSocket != null) {
-            try {
-                BluetoothReflection.closeBluetoothServerSocket(bluetoothServerSocket);
-            } catch (IOException e) {
-                Log.w(this.logTag, "Error while closing bluetooth server socket: " + e.getMessage());
-            }
+            closeServerSocket(bluetoothServerSocket);
+        }
+    }
+
+    private void closeServerSocket(Object bluetoothServerSocket) {
+        try {
+            BluetoothReflection.closeBluetoothServerSocket(bluetoothServerSocket);
+        } catch (IOException e) {
+            Log.w(this.logTag, "Error while closing bluetooth server socket: " + e.getMessage());
         }
     }
 
@@ -128,4 +205,19 @@ public final class BluetoothServer extends BluetoothConnectionBase {
         Log.i(this.logTag, "Successfullly accepted bluetooth connection.");
         EventDispatcher.dispatchEvent(this, "ConnectionAccepted", new Object[0]);
     }
+
+    @SimpleEvent(description = "Indicates that a connection has been accepted by AcceptConnections. The handle identifies the connection in SendTextToConnection, SendBytesToConnection, CloseConnection and the ConnectionDataReceived and ConnectionClosed events.")
+    public void ClientConnected(int handle, String address) {
+        EventDispatcher.dispatchEvent(this, "ClientConnected", Integer.valueOf(handle), address);
+    }
+
+    public void onDestroy() {
+        StopAccepting();
+        super.onDestroy();
+    }
+
+    public void onDelete() {
+        StopAccepting();
+        super.onDelete();
+    }
 }
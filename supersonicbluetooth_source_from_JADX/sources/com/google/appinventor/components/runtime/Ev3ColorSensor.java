@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -17,7 +16,6 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
     private static final int DEFAULT_BOTTOM_OF_RANGE = 30;
     private static final String DEFAULT_SENSOR_MODE_STRING = "reflected";
     private static final int DEFAULT_TOP_OF_RANGE = 60;
-    private static final int DELAY_MILLISECONDS = 50;
     private static final int SENSOR_MODE_AMBIENT = 1;
     private static final String SENSOR_MODE_AMBIENT_STRING = "ambient";
     private static final int SENSOR_MODE_COLOR = 2;
@@ -29,62 +27,15 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
     private boolean belowRangeEventEnabled;
     private int bottomOfRange;
     private boolean colorChangedEventEnabled;
-    private Handler eventHandler = new Handler();
     private int mode = 0;
     private String modeString = "reflected";
     private int previousColor = -1;
     private int previousLightLevel = 0;
-    private final Runnable sensorValueChecker = new C02331();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.Ev3ColorSensor$1 */
-    class C02331 implements Runnable {
-        C02331() {
-        }
-
-        public void run() {
-            String functionName = "";
-            if (Ev3ColorSensor.this.bluetooth != null && Ev3ColorSensor.this.bluetooth.IsConnected()) {
-                if (Ev3ColorSensor.this.mode == 2) {
-                    int currentColor = Ev3ColorSensor.this.getSensorValue(functionName);
-                    if (Ev3ColorSensor.this.previousColor < 0) {
-                        Ev3ColorSensor.this.previousColor = currentColor;
-                        Ev3ColorSensor.this.eventHandler.postDelayed(this, 50);
-                        return;
-                    }
-                    if (currentColor != Ev3ColorSensor.this.previousColor && Ev3ColorSensor.this.colorChangedEventEnabled) {
-                        Ev3ColorSensor.this.ColorChanged(currentColor, Ev3ColorSensor.this.toColorName(functionName, currentColor));
-                    }
-                    Ev3ColorSensor.this.previousColor = currentColor;
-                } else {
-                    int currentLightLevel = Ev3ColorSensor.this.getSensorValue(functionName);
-                    if (Ev3ColorSensor.this.previousLightLevel < 0) {
-                        Ev3ColorSensor.this.previousLightLevel = currentLightLevel;
-                        Ev3ColorSensor.this.eventHandler.postDelayed(this, 50);
-                        return;
-                    }
-                    if (currentLightLevel < Ev3ColorSensor.this.bottomOfRange) {
-                        if (Ev3ColorSensor.this.belowRangeEventEnabled && Ev3ColorSensor.this.previousLightLevel >= Ev3ColorSensor.this.bottomOfRange) {
-                            Ev3ColorSensor.this.BelowRange();
-                        }
-                    } else if (currentLightLevel > Ev3ColorSensor.this.topOfRange) {
-                        if (Ev3ColorSensor.this.aboveRangeEventEnabled && Ev3ColorSensor.this.previousLightLevel <= Ev3ColorSensor.this.topOfRange) {
-                            Ev3ColorSensor.this.AboveRange();
-                        }
-                    } else if (Ev3ColorSensor.this.withinRangeEventEnabled && (Ev3ColorSensor.this.previousLightLevel < Ev3ColorSensor.this.bottomOfRange || Ev3ColorSensor.this.previousLightLevel > Ev3ColorSensor.this.topOfRange)) {
-                        Ev3ColorSensor.this.WithinRange();
-                    }
-                    Ev3ColorSensor.this.previousLightLevel = currentLightLevel;
-                }
-            }
-            Ev3ColorSensor.this.eventHandler.postDelayed(this, 50);
-        }
-    }
-
     public Ev3ColorSensor(ComponentContainer container) {
         super(container, "Ev3ColorSensor");
-        this.eventHandler.post(this.sensorValueChecker);
         TopOfRange(60);
         BottomOfRange(30);
         BelowRangeEventEnabled(false);
@@ -206,7 +157,10 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
     }
 
     private int getSensorValue(String functionName) {
-        int level = readInputPercentage(functionName, 0, this.sensorPortNumber, 29, this.mode);
+        return toSensorValue(readInputPercentage(functionName, 0, this.sensorPortNumber, 29, this.mode));
+    }
+
+    private int toSensorValue(int level) {
         if (this.mode != 2) {
             return level;
         }
@@ -230,6 +184,39 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
         }
     }
 
+    protected void sensorValuePolled(double value) {
+        String functionName = "";
+        if (this.mode == 2) {
+            int currentColor = toSensorValue((int) value);
+            if (this.previousColor < 0) {
+                this.previousColor = currentColor;
+                return;
+            }
+            if (currentColor != this.previousColor && this.colorChangedEventEnabled) {
+                ColorChanged(currentColor, toColorName(functionName, currentColor));
+            }
+            this.previousColor = currentColor;
+            return;
+        }
+        int currentLightLevel = toSensorValue((int) value);
+        if (this.previousLightLevel < 0) {
+            this.previousLightLevel = currentLightLevel;
+            return;
+        }
+        if (currentLightLevel < this.bottomOfRange) {
+            if (this.belowRangeEventEnabled && this.previousLightLevel >= this.bottomOfRange) {
+                BelowRange();
+            }
+        } else if (currentLightLevel > this.topOfRange) {
+            if (this.aboveRangeEventEnabled && this.previousLightLevel <= this.topOfRange) {
+                AboveRange();
+            }
+        } else if (this.withinRangeEventEnabled && (this.previousLightLevel < this.bottomOfRange || this.previousLightLevel > this.topOfRange)) {
+            WithinRange();
+        }
+        this.previousLightLevel = currentLightLevel;
+    }
+
     private String toColorName(String functionName, int colorCode) {
         if (this.mode != 2) {
             return "No Color";
@@ -315,10 +302,6 @@ public class Ev3ColorSensor extends LegoMindstormsEv3Sensor implements Deleteabl
             throw new IllegalArgumentException();
         }
         this.modeString = newModeString;
-    }
-
-    public void onDelete() {
-        this.eventHandler.removeCallbacks(this.sensorValueChecker);
-        super.onDelete();
+        pollInputPercentage(29, this.mode);
     }
 }
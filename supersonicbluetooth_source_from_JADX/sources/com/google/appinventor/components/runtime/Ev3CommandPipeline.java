@@ -0,0 +1,227 @@
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.util.AsynchUtil;
+import com.google.appinventor.components.runtime.util.Ev3BinaryParser.Format;
+import com.google.appinventor.components.runtime.util.FramedPacket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+final class Ev3CommandPipeline {
+    private static final Format HEADER = Format.compile("hh");
+    private static final int REPLY_POLL_INTERVAL = 10;
+    private final BluetoothClient bluetooth;
+    private int commandCount;
+    private final Map<Integer, Reply> outstanding = new LinkedHashMap();
+    private final FramedPacket packet = new FramedPacket(4, 64);
+    private boolean reading;
+    private final byte[] replyHeader = new byte[4];
+    private final ByteBuffer replyHeaderBuffer = ByteBuffer.wrap(this.replyHeader);
+    private final Runnable replyReader = new Runnable() {
+        public void run() {
+            Ev3CommandPipeline.this.readReplies();
+        }
+    };
+
+    interface Callback {
+        void commandCompleted(byte[] bArr);
+    }
+
+    static final class Reply implements Future<byte[]> {
+        private Callback callback;
+        private boolean cancelled;
+        final int counter;
+        private boolean done;
+        final String functionName;
+        private byte[] value;
+
+        Reply(int counter, String functionName, Callback callback) {
+            this.counter = counter;
+            this.functionName = functionName;
+            this.callback = callback;
+        }
+
+        synchronized Callback complete(byte[] value) {
+            if (this.done) {
+                return null;
+            }
+            this.value = value;
+            this.done = true;
+            Callback callback = this.callback;
+            this.callback = null;
+            notifyAll();
+            return callback;
+        }
+
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if (this.done) {
+                return false;
+            }
+            this.cancelled = true;
+            this.done = true;
+            this.callback = null;
+            notifyAll();
+            return true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        public synchronized boolean isDone() {
+            return this.done;
+        }
+
+        public synchronized byte[] get() throws InterruptedException {
+            while (!this.done) {
+                wait();
+            }
+            return this.value;
+        }
+
+        public synchronized byte[] get(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+            while (!this.done) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+            return this.value;
+        }
+    }
+
+    private Ev3CommandPipeline(BluetoothClient bluetooth) {
+        this.bluetooth = bluetooth;
+    }
+
+    static synchronized Ev3CommandPipeline forClient(BluetoothClient bluetooth) {
+        Ev3CommandPipeline pipeline = bluetooth.ev3CommandPipeline;
+        if (pipeline == null) {
+            pipeline = new Ev3CommandPipeline(bluetooth);
+            bluetooth.ev3CommandPipeline = pipeline;
+        }
+        return pipeline;
+    }
+
+    Reply submit(String functionName, byte[] command, boolean needReply, Callback callback) {
+        Reply reply = null;
+        boolean failed = false;
+        synchronized (this) {
+            int counter = this.commandCount & 65535;
+            this.commandCount++;
+            this.packet.frame(command);
+            this.packet.putUnsignedShort(0, command.length + 2);
+            this.packet.putUnsignedShort(2, counter);
+            if (needReply) {
+                reply = new Reply(counter, functionName, callback);
+                this.outstanding.put(Integer.valueOf(counter), reply);
+            }
+            this.bluetooth.write(functionName, this.packet.array(), 0, this.packet.length());
+            if (reply != null && !this.reading) {
+                if (this.bluetooth.IsConnected() && this.bluetooth.claimReceive(this)) {
+                    this.reading = true;
+                    AsynchUtil.runAsynchronously(this.replyReader);
+                } else {
+                    this.outstanding.remove(Integer.valueOf(counter));
+                    failed = true;
+                }
+            }
+        }
+        if (failed) {
+            complete(reply, null);
+        }
+        return reply;
+    }
+
+    void abandon(Reply reply) {
+        synchronized (this) {
+            if (this.outstanding.get(Integer.valueOf(reply.counter)) == reply) {
+                this.outstanding.remove(Integer.valueOf(reply.counter));
+            }
+        }
+        reply.cancel(false);
+    }
+
+    synchronized int outstandingCount() {
+        return this.outstanding.size();
+    }
+
+    private void readReplies() {
+        while (true) {
+            String functionName;
+            synchronized (this) {
+                if (this.outstanding.isEmpty()) {
+                    this.reading = false;
+                    this.bluetooth.releaseReceive(this);
+                    return;
+                }
+                functionName = ((Reply) this.outstanding.values().iterator().next()).functionName;
+            }
+            int available = this.bluetooth.available(this);
+            if (available < 0) {
+                failAll();
+                return;
+            } else if (available == 0) {
+                try {
+                    Thread.sleep(REPLY_POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    failAll();
+                    return;
+                }
+            } else {
+                if (this.bluetooth.read(functionName, this, this.replyHeader, 0, 4) != 4) {
+                    failAll();
+                    return;
+                }
+                int replySize = HEADER.getShort(this.replyHeaderBuffer, 0, 0) - 2;
+                int replyCount = HEADER.getShort(this.replyHeaderBuffer, 0, 1) & 65535;
+                if (replySize < 0) {
+                    failAll();
+                    return;
+                }
+                byte[] body = new byte[replySize];
+                if (replySize > 0 && this.bluetooth.read(functionName, this, body, 0, replySize) != replySize) {
+                    failAll();
+                    return;
+                }
+                Reply reply;
+                synchronized (this) {
+                    reply = (Reply) this.outstanding.remove(Integer.valueOf(replyCount));
+                }
+                if (reply != null) {
+                    complete(reply, body);
+                }
+            }
+        }
+    }
+
+    private void failAll() {
+        List<Reply> failed;
+        synchronized (this) {
+            failed = new ArrayList(this.outstanding.values());
+            this.outstanding.clear();
+            this.reading = false;
+            this.bluetooth.releaseReceive(this);
+        }
+        for (Reply reply : failed) {
+            complete(reply, null);
+        }
+    }
+
+    private void complete(Reply reply, final byte[] value) {
+        final Callback callback = reply.complete(value);
+        if (callback != null) {
+            this.bluetooth.form.runOnUiThread(new Runnable() {
+                public void run() {
+                    callback.commandCompleted(value);
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -15,47 +14,18 @@ import com.google.appinventor.components.runtime.util.ErrorMessages;
 @DesignerComponent(category = ComponentCategory.LEGOMINDSTORMS, description = "A component that provides a high-level interface to a gyro sensor on a LEGO MINDSTORMS EV3 robot.", iconName = "images/legoMindstormsEv3.png", nonVisible = true, version = 1)
 public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable {
     private static final String DEFAULT_SENSOR_MODE_STRING = "angle";
-    private static final int DELAY_MILLISECONDS = 50;
     private static final int SENSOR_MODE_ANGLE = 0;
     private static final String SENSOR_MODE_ANGLE_STRING = "angle";
     private static final int SENSOR_MODE_RATE = 1;
     private static final String SENSOR_MODE_RATE_STRING = "rate";
     private static final int SENSOR_TYPE = 32;
-    private Handler eventHandler = new Handler();
     private int mode = 0;
     private String modeString = "angle";
     private double previousValue = -1.0d;
     private boolean sensorValueChangedEventEnabled = false;
-    private final Runnable sensorValueChecker = new C02341();
-
-    /* renamed from: com.google.appinventor.components.runtime.Ev3GyroSensor$1 */
-    class C02341 implements Runnable {
-        C02341() {
-        }
-
-        public void run() {
-            String functionName = "";
-            if (Ev3GyroSensor.this.bluetooth != null && Ev3GyroSensor.this.bluetooth.IsConnected()) {
-                double currentValue = Ev3GyroSensor.this.getSensorValue(functionName);
-                if (Ev3GyroSensor.this.previousValue < 0.0d) {
-                    Ev3GyroSensor.this.previousValue = currentValue;
-                    Ev3GyroSensor.this.eventHandler.postDelayed(this, 50);
-                    return;
-                }
-                if (Ev3GyroSensor.this.mode == 1 && Math.abs(currentValue) >= 1.0d) {
-                    Ev3GyroSensor.this.SensorValueChanged(currentValue);
-                } else if (Ev3GyroSensor.this.mode == 0 && Math.abs(currentValue - Ev3GyroSensor.this.previousValue) >= 1.0d) {
-                    Ev3GyroSensor.this.SensorValueChanged(currentValue);
-                }
-                Ev3GyroSensor.this.previousValue = currentValue;
-            }
-            Ev3GyroSensor.this.eventHandler.postDelayed(this, 50);
-        }
-    }
 
     public Ev3GyroSensor(ComponentContainer container) {
         super(container, "Ev3GyroSensor");
-        this.eventHandler.post(this.sensorValueChecker);
         Mode("angle");
         SensorValueChangedEventEnabled(false);
     }
@@ -111,6 +81,19 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
         return readInputSI(functionName, 0, this.sensorPortNumber, 32, this.mode);
     }
 
+    protected void sensorValuePolled(double currentValue) {
+        if (this.previousValue < 0.0d) {
+            this.previousValue = currentValue;
+            return;
+        }
+        if (this.mode == 1 && Math.abs(currentValue) >= 1.0d) {
+            SensorValueChanged(currentValue);
+        } else if (this.mode == 0 && Math.abs(currentValue - this.previousValue) >= 1.0d) {
+            SensorValueChanged(currentValue);
+        }
+        this.previousValue = currentValue;
+    }
+
     private void setMode(String newModeString) {
         if ("angle".equals(newModeString)) {
             this.mode = 0;
@@ -120,6 +103,7 @@ public class Ev3GyroSensor extends LegoMindstormsEv3Sensor implements Deleteable
             throw new IllegalArgumentException();
         }
         this.modeString = newModeString;
+        pollInputSI(32, this.mode);
     }
 
     public void onDelete() {
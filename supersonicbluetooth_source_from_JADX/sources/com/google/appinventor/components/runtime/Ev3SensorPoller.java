@@ -0,0 +1,85 @@
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.Ev3CommandPipeline.Reply;
+import com.google.appinventor.components.runtime.util.Ev3BinaryParser;
+import com.google.appinventor.components.runtime.util.Ev3BinaryParser.Format;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+final class Ev3SensorPoller extends LegoMindstormsSensorPoller<LegoMindstormsEv3Sensor> {
+    private static final int MAX_GLOBAL_ALLOCATION = 1023;
+    private static final int REPLY_TIMEOUT = 5000;
+    private static final Format SI_VALUE = Format.compile("f");
+
+    private Ev3SensorPoller(BluetoothClient bluetooth) {
+        super(bluetooth);
+    }
+
+    static synchronized Ev3SensorPoller forClient(BluetoothClient bluetooth) {
+        Ev3SensorPoller poller = bluetooth.ev3SensorPoller;
+        if (poller == null) {
+            poller = new Ev3SensorPoller(bluetooth);
+            bluetooth.ev3SensorPoller = poller;
+        }
+        return poller;
+    }
+
+    protected void poll(List<LegoMindstormsEv3Sensor> sensors) {
+        List<LegoMindstormsEv3Sensor> polled = new ArrayList();
+        List<byte[]> instructions = new ArrayList();
+        boolean[] polledSI = new boolean[sensors.size()];
+        int[] polledTypes = new int[sensors.size()];
+        int[] polledModes = new int[sensors.size()];
+        int globalAllocation = 0;
+        for (LegoMindstormsEv3Sensor sensor : sensors) {
+            if (sensor.bluetooth != this.bluetooth) {
+                remove(sensor);
+            } else if (sensor.isPolled()) {
+                boolean si = sensor.isPolledSI();
+                int type = sensor.getPolledType();
+                int mode = sensor.getPolledMode();
+                int size = si ? 4 : 1;
+                if (globalAllocation + size > MAX_GLOBAL_ALLOCATION) {
+                    break;
+                }
+                instructions.add(Ev3BinaryParser.encodeInstruction((byte) -103, "ccccccg", Byte.valueOf((byte) (si ? 29 : 27)), Byte.valueOf((byte) 0), Byte.valueOf((byte) sensor.sensorPortNumber), Byte.valueOf((byte) type), Byte.valueOf((byte) mode), Byte.valueOf((byte) 1), globalAllocation > 127 ? Short.valueOf((short) globalAllocation) : Byte.valueOf((byte) globalAllocation)));
+                polledSI[polled.size()] = si;
+                polledTypes[polled.size()] = type;
+                polledModes[polled.size()] = mode;
+                polled.add(sensor);
+                globalAllocation += size;
+            }
+        }
+        if (!polled.isEmpty()) {
+            byte[] command = Ev3BinaryParser.encodeDirectCommand(true, globalAllocation, 0, (byte[][]) instructions.toArray(new byte[instructions.size()][]));
+            Ev3CommandPipeline pipeline = Ev3CommandPipeline.forClient(this.bluetooth);
+            Reply pending = pipeline.submit("", command, true, null);
+            if (pending != null) {
+                byte[] reply = null;
+                try {
+                    reply = pending.get((long) REPLY_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (reply == null) {
+                    pipeline.abandon(pending);
+                } else if (reply.length == globalAllocation + 1 && reply[0] == (byte) 2) {
+                    ByteBuffer buffer = ByteBuffer.wrap(reply);
+                    int offset = 1;
+                    for (int i = 0; i < polled.size(); i++) {
+                        LegoMindstormsEv3Sensor sensor2 = (LegoMindstormsEv3Sensor) polled.get(i);
+                        if (polledSI[i]) {
+                            sensor2.postSensorValue(polledTypes[i], polledModes[i], (double) SI_VALUE.getFloat(buffer, offset, 0));
+                            offset += 4;
+                        } else {
+                            sensor2.postSensorValue(polledTypes[i], polledModes[i], (double) reply[offset]);
+                            offset++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
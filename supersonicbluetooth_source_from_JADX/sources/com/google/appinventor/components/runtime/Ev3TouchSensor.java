@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -13,49 +12,19 @@ import com.google.appinventor.components.common.ComponentCategory;
 @SimpleObject
 @DesignerComponent(category = ComponentCategory.LEGOMINDSTORMS, description = "A component that provides a high-level interface to a touch sensor on a LEGO MINDSTORMS EV3 robot.", iconName = "images/legoMindstormsEv3.png", nonVisible = true, version = 1)
 public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteable {
-    private static final int DELAY_MILLISECONDS = 50;
     private static final int SENSOR_MODE_TOUCH = 0;
     private static final String SENSOR_MODE_TOUCH_STRING = "touch";
     private static final int SENSOR_TYPE = 16;
     private static final int SENSOR_VALUE_THRESHOLD = 50;
-    private Handler eventHandler = new Handler();
     private int mode = 0;
     private String modeString = SENSOR_MODE_TOUCH_STRING;
     private boolean pressedEventEnabled;
     private boolean releasedEventEnabled;
     private int savedPressedValue = -1;
-    private final Runnable sensorValueChecker = new C02361();
-
-    /* renamed from: com.google.appinventor.components.runtime.Ev3TouchSensor$1 */
-    class C02361 implements Runnable {
-        C02361() {
-        }
-
-        public void run() {
-            String functionName = "";
-            if (Ev3TouchSensor.this.bluetooth != null && Ev3TouchSensor.this.bluetooth.IsConnected()) {
-                int currentPressedValue = Ev3TouchSensor.this.getPressedValue(functionName);
-                if (Ev3TouchSensor.this.savedPressedValue < 0) {
-                    Ev3TouchSensor.this.savedPressedValue = currentPressedValue;
-                    Ev3TouchSensor.this.eventHandler.postDelayed(this, 50);
-                    return;
-                }
-                if (Ev3TouchSensor.this.savedPressedValue < 50) {
-                    if (Ev3TouchSensor.this.releasedEventEnabled && currentPressedValue >= 50) {
-                        Ev3TouchSensor.this.Pressed();
-                    }
-                } else if (Ev3TouchSensor.this.pressedEventEnabled && currentPressedValue < 50) {
-                    Ev3TouchSensor.this.Released();
-                }
-                Ev3TouchSensor.this.savedPressedValue = currentPressedValue;
-            }
-            Ev3TouchSensor.this.eventHandler.postDelayed(this, 50);
-        }
-    }
 
     public Ev3TouchSensor(ComponentContainer container) {
         super(container, "Ev3TouchSensor");
-        this.eventHandler.post(this.sensorValueChecker);
+        pollInputPercentage(16, this.mode);
         PressedEventEnabled(false);
         ReleasedEventEnabled(false);
     }
@@ -101,8 +70,19 @@ public class Ev3TouchSensor extends LegoMindstormsEv3Sensor implements Deleteabl
         return readInputPercentage(functionName, 0, this.sensorPortNumber, 16, this.mode);
     }
 
-    public void onDelete() {
-        this.eventHandler.removeCallbacks(this.sensorValueChecker);
-        super.onDelete();
+    protected void sensorValuePolled(double value) {
+        int currentPressedValue = (int) value;
+        if (this.savedPressedValue < 0) {
+            this.savedPressedValue = currentPressedValue;
+            return;
+        }
+        if (this.savedPressedValue < 50) {
+            if (this.releasedEventEnabled && currentPressedValue >= 50) {
+                Pressed();
+            }
+        } else if (this.pressedEventEnabled && currentPressedValue < 50) {
+            Released();
+        }
+        this.savedPressedValue = currentPressedValue;
     }
 }
@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -17,7 +16,6 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
     private static final int DEFAULT_BOTTOM_OF_RANGE = 30;
     private static final String DEFAULT_SENSOR_MODE_STRING = "cm";
     private static final int DEFAULT_TOP_OF_RANGE = 90;
-    private static final int DELAY_MILLISECONDS = 50;
     private static final int SENSOR_MODE_CM = 0;
     private static final String SENSOR_MODE_CM_STRING = "cm";
     private static final int SENSOR_MODE_INCH = 1;
@@ -26,48 +24,14 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
     private boolean aboveRangeEventEnabled;
     private boolean belowRangeEventEnabled;
     private int bottomOfRange;
-    private Handler eventHandler = new Handler();
     private int mode = 0;
     private String modeString = "cm";
     private double previousDistance = -1.0d;
-    private final Runnable sensorValueChecker = new C02371();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.Ev3UltrasonicSensor$1 */
-    class C02371 implements Runnable {
-        C02371() {
-        }
-
-        public void run() {
-            String functionName = "";
-            if (Ev3UltrasonicSensor.this.bluetooth != null && Ev3UltrasonicSensor.this.bluetooth.IsConnected()) {
-                double currentDistance = Ev3UltrasonicSensor.this.getDistance(functionName);
-                if (Ev3UltrasonicSensor.this.previousDistance < 0.0d) {
-                    Ev3UltrasonicSensor.this.previousDistance = currentDistance;
-                    Ev3UltrasonicSensor.this.eventHandler.postDelayed(this, 50);
-                    return;
-                }
-                if (currentDistance < ((double) Ev3UltrasonicSensor.this.bottomOfRange)) {
-                    if (Ev3UltrasonicSensor.this.belowRangeEventEnabled && Ev3UltrasonicSensor.this.previousDistance >= ((double) Ev3UltrasonicSensor.this.bottomOfRange)) {
-                        Ev3UltrasonicSensor.this.BelowRange();
-                    }
-                } else if (currentDistance > ((double) Ev3UltrasonicSensor.this.topOfRange)) {
-                    if (Ev3UltrasonicSensor.this.aboveRangeEventEnabled && Ev3UltrasonicSensor.this.previousDistance <= ((double) Ev3UltrasonicSensor.this.topOfRange)) {
-                        Ev3UltrasonicSensor.this.AboveRange();
-                    }
-                } else if (Ev3UltrasonicSensor.this.withinRangeEventEnabled && (Ev3UltrasonicSensor.this.previousDistance < ((double) Ev3UltrasonicSensor.this.bottomOfRange) || Ev3UltrasonicSensor.this.previousDistance > ((double) Ev3UltrasonicSensor.this.topOfRange))) {
-                    Ev3UltrasonicSensor.this.WithinRange();
-                }
-                Ev3UltrasonicSensor.this.previousDistance = currentDistance;
-            }
-            Ev3UltrasonicSensor.this.eventHandler.postDelayed(this, 50);
-        }
-    }
-
     public Ev3UltrasonicSensor(ComponentContainer container) {
         super(container, "Ev3UltrasonicSensor");
-        this.eventHandler.post(this.sensorValueChecker);
         TopOfRange(90);
         BottomOfRange(30);
         BelowRangeEventEnabled(false);
@@ -82,10 +46,33 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
     }
 
     private double getDistance(String functionName) {
-        double distance = readInputSI(functionName, 0, this.sensorPortNumber, 30, this.mode);
+        return toDistance(readInputSI(functionName, 0, this.sensorPortNumber, 30, this.mode));
+    }
+
+    private double toDistance(double distance) {
         return distance == 255.0d ? -1.0d : distance;
     }
 
+    protected void sensorValuePolled(double value) {
+        double currentDistance = toDistance(value);
+        if (this.previousDistance < 0.0d) {
+            this.previousDistance = currentDistance;
+            return;
+        }
+        if (currentDistance < ((double) this.bottomOfRange)) {
+            if (this.belowRangeEventEnabled && this.previousDistance >= ((double) this.bottomOfRange)) {
+                BelowRange();
+            }
+        } else if (currentDistance > ((double) this.topOfRange)) {
+            if (this.aboveRangeEventEnabled && this.previousDistance <= ((double) this.topOfRange)) {
+                AboveRange();
+            }
+        } else if (this.withinRangeEventEnabled && (this.previousDistance < ((double) this.bottomOfRange) || this.previousDistance > ((double) this.topOfRange))) {
+            WithinRange();
+        }
+        this.previousDistance = currentDistance;
+    }
+
     @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The bottom of the range used for the BelowRange, WithinRange, and AboveRange events.")
     public int BottomOfRange() {
         return this.bottomOfRange;
@@ -202,10 +189,6 @@ public class Ev3UltrasonicSensor extends LegoMindstormsEv3Sensor implements Dele
             throw new IllegalArgumentException();
         }
         this.modeString = newModeString;
-    }
-
-    public void onDelete() {
-        this.eventHandler.removeCallbacks(this.sensorValueChecker);
-        super.onDelete();
+        pollInputSI(30, this.mode);
     }
 }
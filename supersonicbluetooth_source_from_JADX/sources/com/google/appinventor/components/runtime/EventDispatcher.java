@@ -1,12 +1,18 @@
 package com.google.appinventor.components.runtime;
 
+import com.google.appinventor.components.runtime.util.RuntimeProfiler;
+import com.google.appinventor.components.runtime.util.RuntimeProfiler.Frame;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EventDispatcher {
     private static final boolean DEBUG = false;
+    private static volatile EventRegistry lastEventRegistry;
     private static final Map<HandlesEventDispatching, EventRegistry> mapDispatchDelegateToEventRegistry = new HashMap();
 
     private static final class EventClosure {
@@ -40,30 +46,68 @@ public class EventDispatcher {
         }
     }
 
+    private static final class EventTable {
+        private final EventClosure[] eventClosures;
+        private final Map<Component, EventClosure> handlers = Collections.synchronizedMap(new WeakHashMap());
+
+        EventTable(Set<EventClosure> eventClosures) {
+            this.eventClosures = (EventClosure[]) eventClosures.toArray(new EventClosure[eventClosures.size()]);
+        }
+    }
+
     private static final class EventRegistry {
         private final HandlesEventDispatching dispatchDelegate;
         private final HashMap<String, Set<EventClosure>> eventClosuresMap = new HashMap();
+        private final Map<String, EventTable> eventTables = new ConcurrentHashMap();
 
         EventRegistry(HandlesEventDispatching dispatchDelegate) {
             this.dispatchDelegate = dispatchDelegate;
         }
+
+        void rebuild(String eventName) {
+            Set<EventClosure> eventClosures = (Set) this.eventClosuresMap.get(eventName);
+            if (eventClosures == null || eventClosures.isEmpty()) {
+                this.eventTables.remove(eventName);
+            } else {
+                this.eventTables.put(eventName, new EventTable(eventClosures));
+            }
+        }
+
+        void clear() {
+            this.eventClosuresMap.clear();
+            this.eventTables.clear();
+        }
     }
 
     private EventDispatcher() {
     }
 
     private static EventRegistry getEventRegistry(HandlesEventDispatching dispatchDelegate) {
-        EventRegistry er = (EventRegistry) mapDispatchDelegateToEventRegistry.get(dispatchDelegate);
-        if (er != null) {
+        EventRegistry er = lastEventRegistry;
+        if (er != null && er.dispatchDelegate == dispatchDelegate) {
             return er;
         }
-        er = new EventRegistry(dispatchDelegate);
-        mapDispatchDelegateToEventRegistry.put(dispatchDelegate, er);
+        synchronized (mapDispatchDelegateToEventRegistry) {
+            er = (EventRegistry) mapDispatchDelegateToEventRegistry.get(dispatchDelegate);
+            if (er == null) {
+                er = new EventRegistry(dispatchDelegate);
+                mapDispatchDelegateToEventRegistry.put(dispatchDelegate, er);
+            }
+            lastEventRegistry = er;
+        }
         return er;
     }
 
     private static EventRegistry removeEventRegistry(HandlesEventDispatching dispatchDelegate) {
-        return (EventRegistry) mapDispatchDelegateToEventRegistry.remove(dispatchDelegate);
+        EventRegistry eventRegistry;
+        synchronized (mapDispatchDelegateToEventRegistry) {
+            EventRegistry er = lastEventRegistry;
+            if (er != null && er.dispatchDelegate == dispatchDelegate) {
+                lastEventRegistry = null;
+            }
+            eventRegistry = (EventRegistry) mapDispatchDelegateToEventRegistry.remove(dispatchDelegate);
+        }
+        return eventRegistry;
     }
 
     public static void registerEventForDelegation(HandlesEventDispatching dispatchDelegate, String componentId, String eventName) {
@@ -73,11 +117,14 @@ public class EventDispatcher {
             eventClosures = new HashSet();
             er.eventClosuresMap.put(eventName, eventClosures);
         }
-        eventClosures.add(new EventClosure(componentId, eventName));
+        if (eventClosures.add(new EventClosure(componentId, eventName))) {
+            er.rebuild(eventName);
+        }
     }
 
     public static void unregisterEventForDelegation(HandlesEventDispatching dispatchDelegate, String componentId, String eventName) {
-        Set<EventClosure> eventClosures = (Set) getEventRegistry(dispatchDelegate).eventClosuresMap.get(eventName);
+        EventRegistry er = getEventRegistry(dispatchDelegate);
+        Set<EventClosure> eventClosures = (Set) er.eventClosuresMap.get(eventName);
         if (eventClosures != null && !eventClosures.isEmpty()) {
             Set<EventClosure> toDelete = new HashSet();
             for (EventClosure eventClosure : eventClosures) {
@@ -88,19 +135,24 @@ public class EventDispatcher {
             for (EventClosure eventClosure2 : toDelete) {
                 eventClosures.remove(eventClosure2);
             }
+            if (!toDelete.isEmpty()) {
+                er.rebuild(eventName);
+            }
         }
     }
 
     public static void unregisterAllEventsForDelegation() {
-        for (EventRegistry er : mapDispatchDelegateToEventRegistry.values()) {
-            er.eventClosuresMap.clear();
+        synchronized (mapDispatchDelegateToEventRegistry) {
+            for (EventRegistry er : mapDispatchDelegateToEventRegistry.values()) {
+                er.clear();
+            }
         }
     }
 
     public static void removeDispatchDelegate(HandlesEventDispatching dispatchDelegate) {
         EventRegistry er = removeEventRegistry(dispatchDelegate);
         if (er != null) {
-            er.eventClosuresMap.clear();
+            er.clear();
         }
     }
 
@@ -108,25 +160,42 @@ public class EventDispatcher {
         boolean dispatched = false;
         HandlesEventDispatching dispatchDelegate = component.getDispatchDelegate();
         if (dispatchDelegate.canDispatchEvent(component, eventName)) {
-            Set<EventClosure> eventClosures = (Set) getEventRegistry(dispatchDelegate).eventClosuresMap.get(eventName);
-            if (eventClosures != null && eventClosures.size() > 0) {
-                dispatched = delegateDispatchEvent(dispatchDelegate, eventClosures, component, args);
+            EventTable eventTable = (EventTable) getEventRegistry(dispatchDelegate).eventTables.get(eventName);
+            if (eventTable != null) {
+                dispatched = delegateDispatchEvent(dispatchDelegate, eventTable, component, args);
             }
             dispatchDelegate.dispatchGenericEvent(component, eventName, !dispatched, args);
         }
         return dispatched;
     }
 
-    private static boolean delegateDispatchEvent(HandlesEventDispatching dispatchDelegate, Set<EventClosure> eventClosures, Component component, Object... args) {
+    private static boolean delegateDispatchEvent(HandlesEventDispatching dispatchDelegate, EventTable eventTable, Component component, Object... args) {
+        EventClosure handler = (EventClosure) eventTable.handlers.get(component);
+        if (handler != null) {
+            if (delegateDispatchEvent(dispatchDelegate, handler, component, args)) {
+                return true;
+            }
+            eventTable.handlers.remove(component);
+        }
         boolean dispatched = false;
-        for (EventClosure eventClosure : eventClosures) {
-            if (dispatchDelegate.dispatchEvent(component, eventClosure.componentId, eventClosure.eventName, args)) {
+        for (EventClosure eventClosure : eventTable.eventClosures) {
+            if (eventClosure != handler && delegateDispatchEvent(dispatchDelegate, eventClosure, component, args)) {
+                eventTable.handlers.put(component, eventClosure);
                 dispatched = true;
             }
         }
         return dispatched;
     }
 
+    private static boolean delegateDispatchEvent(HandlesEventDispatching dispatchDelegate, EventClosure eventClosure, Component component, Object... args) {
+        Frame frame = RuntimeProfiler.enter(eventClosure.componentId, '$', eventClosure.eventName);
+        try {
+            return dispatchDelegate.dispatchEvent(component, eventClosure.componentId, eventClosure.eventName, args);
+        } finally {
+            RuntimeProfiler.exit(frame);
+        }
+    }
+
     public static String makeFullEventName(String componentId, String eventName) {
         return componentId + '$' + eventName;
     }
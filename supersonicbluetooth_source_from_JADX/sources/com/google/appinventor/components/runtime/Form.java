@@ -54,6 +54,7 @@ import com.google.appinventor.components.runtime.util.JsonUtil;
 import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.OnInitializeListener;
 import com.google.appinventor.components.runtime.util.PaintUtil;
+import com.google.appinventor.components.runtime.util.RuntimeProfiler;
 import com.google.appinventor.components.runtime.util.ScreenDensityUtil;
 import com.google.appinventor.components.runtime.util.SdkLevel;
 import com.google.appinventor.components.runtime.util.ViewUtil;
@@ -1111,6 +1112,36 @@ public class Form extends AppInventorCompatActivity implements Component, Compon
         return showListsAsJson;
     }
 
+    @DesignerProperty(defaultValue = "False", editorType = "boolean")
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "If true, the app records call counts and times for every event handler and component method call. The setting applies to all screens. Use WriteProfile to save the results.")
+    public void Profiling(boolean profiling) {
+        if (profiling) {
+            RuntimeProfiler.start();
+        } else {
+            RuntimeProfiler.stop();
+        }
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR)
+    public boolean Profiling() {
+        return RuntimeProfiler.isEnabled();
+    }
+
+    @SimpleFunction(description = "Writes the results recorded while Profiling is true to profile-report.txt, a table sorted by total time, and to profile.folded, in the collapsed stack format read by flame graph tools. Returns the directory that holds the files.")
+    public String WriteProfile() {
+        try {
+            return RuntimeProfiler.dump(this).getAbsolutePath();
+        } catch (IOException e) {
+            dispatchErrorOccurredEvent(this, "WriteProfile", ErrorMessages.ERROR_CANNOT_WRITE_TO_FILE, e.getMessage());
+            return "";
+        }
+    }
+
+    @SimpleFunction(description = "Discards the results recorded so far while Profiling is true.")
+    public void ResetProfile() {
+        RuntimeProfiler.reset();
+    }
+
     @DesignerProperty(defaultValue = "", editorType = "string")
     @SimpleProperty(description = "This is the display name of the installed application in the phone.If the AppName is blank, it will be set to the name of the project when the project is built.", userVisible = false)
     public void AppName(String aName) {
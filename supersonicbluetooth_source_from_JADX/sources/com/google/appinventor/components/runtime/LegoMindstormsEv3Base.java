@@ -4,15 +4,18 @@ import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
 import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
+import com.google.appinventor.components.runtime.Ev3CommandPipeline.Callback;
+import com.google.appinventor.components.runtime.Ev3CommandPipeline.Reply;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
-import com.google.appinventor.components.runtime.util.Ev3BinaryParser;
 import java.util.Collections;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @SimpleObject
 public class LegoMindstormsEv3Base extends AndroidNonvisibleComponent implements BluetoothConnectionListener, Component, Deleteable {
     private static final int TOY_ROBOT = 2052;
+    private static final int REPLY_TIMEOUT = 5000;
     protected BluetoothClient bluetooth;
-    protected int commandCount;
     protected final String logTag;
 
     protected LegoMindstormsEv3Base(ComponentContainer container, String logTag) {
@@ -64,29 +67,32 @@ public class LegoMindstormsEv3Base extends AndroidNonvisibleComponent implements
         if (!isBluetoothConnected(functionName)) {
             return null;
         }
-        byte[] header = Ev3BinaryParser.pack("hh", Short.valueOf((short) (command.length + 2)), Short.valueOf((short) this.commandCount));
-        this.commandCount++;
-        this.bluetooth.write(functionName, header);
-        this.bluetooth.write(functionName, command);
-        if (!doReceiveReply) {
+        Ev3CommandPipeline pipeline = Ev3CommandPipeline.forClient(this.bluetooth);
+        Reply pending = pipeline.submit(functionName, command, doReceiveReply, null);
+        if (pending == null) {
             return null;
         }
-        header = this.bluetooth.read(functionName, 4);
-        if (header.length == 4) {
-            Object[] decodedHeader = Ev3BinaryParser.unpack("hh", header);
-            int replySize = ((Short) decodedHeader[0]).shortValue() - 2;
-            int replyCount = ((Short) decodedHeader[1]).shortValue();
-            byte[] reply = this.bluetooth.read(functionName, replySize);
-            if (reply.length == replySize) {
-                return reply;
-            }
-            this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY, new Object[0]);
-            return null;
+        byte[] reply = null;
+        try {
+            reply = pending.get((long) REPLY_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        if (reply != null) {
+            return reply;
+        }
+        pipeline.abandon(pending);
         this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY, new Object[0]);
         return null;
     }
 
+    protected final Future<byte[]> sendCommandAsync(String functionName, byte[] command, Callback callback) {
+        if (isBluetoothConnected(functionName)) {
+            return Ev3CommandPipeline.forClient(this.bluetooth).submit(functionName, command, true, callback);
+        }
+        return null;
+    }
+
     protected final int sensorPortLetterToPortNumber(String letter) {
         if (letter.length() != 1) {
             throw new IllegalArgumentException("String \"" + letter + "\" is not a valid sensor port letter");
@@ -6,10 +6,16 @@ import com.google.appinventor.components.annotations.SimpleObject;
 import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
 import com.google.appinventor.components.runtime.util.Ev3BinaryParser;
+import com.google.appinventor.components.runtime.util.Ev3BinaryParser.Format;
+import java.nio.ByteBuffer;
 
 @SimpleObject
 public class LegoMindstormsEv3Sensor extends LegoMindstormsEv3Base {
     protected static final String DEFAULT_SENSOR_PORT = "1";
+    private static final Format SI_REPLY = Format.compile("xf");
+    private volatile int polledMode;
+    private volatile boolean polledSI;
+    private volatile int polledType = -1;
     protected int sensorPortNumber;
 
     protected LegoMindstormsEv3Sensor(ComponentContainer container, String logTag) {
@@ -53,9 +59,65 @@ public class LegoMindstormsEv3Sensor extends LegoMindstormsEv3Base {
         }
         byte[] reply = sendCommand(functionName, Ev3BinaryParser.encodeDirectCommand((byte) -103, true, 4, 0, "ccccccg", Byte.valueOf((byte) 29), Byte.valueOf((byte) layer), Byte.valueOf((byte) no), Byte.valueOf((byte) type), Byte.valueOf((byte) mode), Byte.valueOf((byte) 1), Byte.valueOf((byte) 0)), true);
         if (reply != null && reply.length == 5 && reply[0] == (byte) 2) {
-            return (double) ((Float) Ev3BinaryParser.unpack("xf", reply)[0]).floatValue();
+            return (double) SI_REPLY.getFloat(ByteBuffer.wrap(reply), 0, 0);
         }
         this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_EV3_INVALID_REPLY, new Object[0]);
         return -1.0d;
     }
+
+    protected final void pollInputPercentage(int type, int mode) {
+        this.polledSI = false;
+        this.polledMode = mode;
+        this.polledType = type;
+    }
+
+    protected final void pollInputSI(int type, int mode) {
+        this.polledSI = true;
+        this.polledMode = mode;
+        this.polledType = type;
+    }
+
+    final boolean isPolled() {
+        return this.polledType >= 0;
+    }
+
+    final boolean isPolledSI() {
+        return this.polledSI;
+    }
+
+    final int getPolledType() {
+        return this.polledType;
+    }
+
+    final int getPolledMode() {
+        return this.polledMode;
+    }
+
+    final void postSensorValue(final int type, final int mode, final double value) {
+        this.form.runOnUiThread(new Runnable() {
+            public void run() {
+                if (LegoMindstormsEv3Sensor.this.polledType == type && LegoMindstormsEv3Sensor.this.polledMode == mode) {
+                    LegoMindstormsEv3Sensor.this.sensorValuePolled(value);
+                }
+            }
+        });
+    }
+
+    protected void sensorValuePolled(double value) {
+    }
+
+    public void afterConnect(BluetoothConnectionBase bluetoothConnection) {
+        Ev3SensorPoller.forClient(this.bluetooth).add(this);
+    }
+
+    public void beforeDisconnect(BluetoothConnectionBase bluetoothConnection) {
+        Ev3SensorPoller.forClient(this.bluetooth).removeBeforeDisconnect(this);
+    }
+
+    public void onDelete() {
+        if (this.bluetooth != null) {
+            Ev3SensorPoller.forClient(this.bluetooth).remove(this);
+        }
+        super.onDelete();
+    }
 }
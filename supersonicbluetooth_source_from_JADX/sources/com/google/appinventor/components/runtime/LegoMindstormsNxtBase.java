@@ -202,24 +202,26 @@ public class LegoMindstormsNxtBase extends AndroidNonvisibleComponent implements
     }
 
     protected final byte[] sendCommandAndReceiveReturnPackage(String functionName, byte[] command) {
-        sendCommand(functionName, command);
-        return receiveReturnPackage(functionName);
+        byte[] receiveReturnPackage;
+        synchronized (linkLock()) {
+            sendCommand(functionName, command);
+            receiveReturnPackage = receiveReturnPackage(functionName);
+        }
+        return receiveReturnPackage;
     }
 
     protected final void sendCommand(String functionName, byte[] command) {
-        byte[] header = new byte[2];
-        copyUWORDValueToBytes(command.length, header, 0);
-        this.bluetooth.write(functionName, header);
-        this.bluetooth.write(functionName, command);
+        NxtLink.forClient(this.bluetooth).sendCommand(functionName, command);
+    }
+
+    protected final Object linkLock() {
+        return NxtLink.forClient(this.bluetooth);
     }
 
     private byte[] receiveReturnPackage(String functionName) {
-        byte[] header = this.bluetooth.read(functionName, 2);
-        if (header.length == 2) {
-            byte[] returnPackage = this.bluetooth.read(functionName, getUWORDValueFromBytes(header, 0));
-            if (returnPackage.length >= 3) {
-                return returnPackage;
-            }
+        byte[] returnPackage = NxtLink.forClient(this.bluetooth).receiveReturnPackage(functionName);
+        if (returnPackage != null && returnPackage.length >= 3) {
+            return returnPackage;
         }
         this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_NXT_INVALID_RETURN_PACKAGE, new Object[0]);
         return new byte[0];
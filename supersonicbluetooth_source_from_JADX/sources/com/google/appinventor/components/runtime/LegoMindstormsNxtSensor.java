@@ -29,6 +29,7 @@ public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase {
     static final int SENSOR_TYPE_SOUND_DBA = 8;
     static final int SENSOR_TYPE_SWITCH = 1;
     static final int SENSOR_TYPE_TEMPERATURE = 2;
+    private boolean polling;
     protected int port;
     private String sensorPortLetter;
 
@@ -69,7 +70,53 @@ public abstract class LegoMindstormsNxtSensor extends LegoMindstormsNxtBase {
         }
     }
 
+    protected final void startPolling() {
+        this.polling = true;
+        if (this.bluetooth != null && this.bluetooth.IsConnected()) {
+            NxtSensorPoller.forClient(this.bluetooth).add(this);
+        }
+    }
+
+    protected final void stopPolling() {
+        this.polling = false;
+        if (this.bluetooth != null) {
+            NxtSensorPoller.forClient(this.bluetooth).remove(this);
+        }
+    }
+
+    protected boolean readsInputValues() {
+        return true;
+    }
+
+    protected void inputValuesPolled(byte[] returnPackage) {
+    }
+
+    protected void pollSensor() {
+    }
+
+    final void postInputValues(final int port, final byte[] returnPackage) {
+        this.form.runOnUiThread(new Runnable() {
+            public void run() {
+                if (LegoMindstormsNxtSensor.this.polling && LegoMindstormsNxtSensor.this.port == port) {
+                    LegoMindstormsNxtSensor.this.inputValuesPolled(returnPackage);
+                }
+            }
+        });
+    }
+
     public void afterConnect(BluetoothConnectionBase bluetoothConnection) {
         initializeSensor("Connect");
+        if (this.polling) {
+            NxtSensorPoller.forClient(this.bluetooth).add(this);
+        }
+    }
+
+    public void beforeDisconnect(BluetoothConnectionBase bluetoothConnection) {
+        NxtSensorPoller.forClient(this.bluetooth).removeBeforeDisconnect(this);
+    }
+
+    public void onDelete() {
+        stopPolling();
+        super.onDelete();
     }
 }
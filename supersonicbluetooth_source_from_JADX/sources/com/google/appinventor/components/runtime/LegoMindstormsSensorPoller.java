@@ -0,0 +1,92 @@
+package com.google.appinventor.components.runtime;
+
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+abstract class LegoMindstormsSensorPoller<S> {
+    private static final int DELAY_MILLISECONDS = 50;
+    private static final String LOG_TAG = "LegoMindstormsSensorPoller";
+    private static final int STOP_TIMEOUT = 1000;
+    protected final BluetoothClient bluetooth;
+    private final Runnable pollTask = new Runnable() {
+        public void run() {
+            LegoMindstormsSensorPoller.this.pollSensors();
+        }
+    };
+    private ScheduledExecutorService scheduler;
+    private final List<S> sensors = new ArrayList();
+
+    protected LegoMindstormsSensorPoller(BluetoothClient bluetooth) {
+        this.bluetooth = bluetooth;
+    }
+
+    protected abstract void poll(List<S> list);
+
+    synchronized void add(S sensor) {
+        if (!this.sensors.contains(sensor)) {
+            this.sensors.add(sensor);
+        }
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, LegoMindstormsSensorPoller.LOG_TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.scheduler.scheduleWithFixedDelay(this.pollTask, 0, 50, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void remove(S sensor) {
+        this.sensors.remove(sensor);
+        if (this.sensors.isEmpty() && this.scheduler != null) {
+            this.scheduler.shutdown();
+            this.scheduler = null;
+        }
+    }
+
+    void removeBeforeDisconnect(S sensor) {
+        ScheduledExecutorService stopped = null;
+        synchronized (this) {
+            this.sensors.remove(sensor);
+            if (this.sensors.isEmpty()) {
+                stopped = this.scheduler;
+                this.scheduler = null;
+            }
+        }
+        if (stopped != null) {
+            stopped.shutdownNow();
+            try {
+                if (!stopped.awaitTermination(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    Log.w(LOG_TAG, "Sensor poll did not finish before disconnecting.");
+                }
+            } catch (InterruptedException e) {
+                Log.w(LOG_TAG, "Interrupted while stopping the sensor poller.");
+            }
+        }
+    }
+
+    synchronized int size() {
+        return this.sensors.size();
+    }
+
+    private void pollSensors() {
+        List<S> polled;
+        synchronized (this) {
+            polled = new ArrayList(this.sensors);
+        }
+        if (!polled.isEmpty() && this.bluetooth.IsConnected()) {
+            try {
+                poll(polled);
+            } catch (RuntimeException e) {
+                Log.w(LOG_TAG, "Error while polling sensors: " + e.getMessage());
+            }
+        }
+    }
+}
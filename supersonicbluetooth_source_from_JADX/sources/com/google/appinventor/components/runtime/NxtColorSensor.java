@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -32,62 +31,11 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     private boolean colorChangedEventEnabled;
     private boolean detectColor;
     private int generateColor;
-    private Handler handler = new Handler();
     private int previousColor = 16777215;
     private State previousState = State.UNKNOWN;
-    private final Runnable sensorReader = new C03131();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.NxtColorSensor$1 */
-    class C03131 implements Runnable {
-        C03131() {
-        }
-
-        public void run() {
-            if (NxtColorSensor.this.bluetooth != null && NxtColorSensor.this.bluetooth.IsConnected()) {
-                SensorValue<Integer> sensorValue;
-                if (NxtColorSensor.this.detectColor) {
-                    sensorValue = NxtColorSensor.this.getColorValue("");
-                    if (sensorValue.valid) {
-                        int currentColor = ((Integer) sensorValue.value).intValue();
-                        if (currentColor != NxtColorSensor.this.previousColor) {
-                            NxtColorSensor.this.ColorChanged(currentColor);
-                        }
-                        NxtColorSensor.this.previousColor = currentColor;
-                    }
-                } else {
-                    sensorValue = NxtColorSensor.this.getLightValue("");
-                    if (sensorValue.valid) {
-                        State currentState;
-                        if (((Integer) sensorValue.value).intValue() < NxtColorSensor.this.bottomOfRange) {
-                            currentState = State.BELOW_RANGE;
-                        } else if (((Integer) sensorValue.value).intValue() > NxtColorSensor.this.topOfRange) {
-                            currentState = State.ABOVE_RANGE;
-                        } else {
-                            currentState = State.WITHIN_RANGE;
-                        }
-                        if (currentState != NxtColorSensor.this.previousState) {
-                            if (currentState == State.BELOW_RANGE && NxtColorSensor.this.belowRangeEventEnabled) {
-                                NxtColorSensor.this.BelowRange();
-                            }
-                            if (currentState == State.WITHIN_RANGE && NxtColorSensor.this.withinRangeEventEnabled) {
-                                NxtColorSensor.this.WithinRange();
-                            }
-                            if (currentState == State.ABOVE_RANGE && NxtColorSensor.this.aboveRangeEventEnabled) {
-                                NxtColorSensor.this.AboveRange();
-                            }
-                        }
-                        NxtColorSensor.this.previousState = currentState;
-                    }
-                }
-            }
-            if (NxtColorSensor.this.isHandlerNeeded()) {
-                NxtColorSensor.this.handler.post(NxtColorSensor.this.sensorReader);
-            }
-        }
-    }
-
     private enum State {
         UNKNOWN,
         BELOW_RANGE,
@@ -121,6 +69,44 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
         GenerateColor(16777215);
     }
 
+    protected void inputValuesPolled(byte[] returnPackage) {
+        SensorValue<Integer> sensorValue;
+        if (this.detectColor) {
+            sensorValue = toColorValue(returnPackage);
+            if (sensorValue.valid) {
+                int currentColor = ((Integer) sensorValue.value).intValue();
+                if (currentColor != this.previousColor) {
+                    ColorChanged(currentColor);
+                }
+                this.previousColor = currentColor;
+            }
+        } else {
+            sensorValue = toLightValue(returnPackage);
+            if (sensorValue.valid) {
+                State currentState;
+                if (((Integer) sensorValue.value).intValue() < this.bottomOfRange) {
+                    currentState = State.BELOW_RANGE;
+                } else if (((Integer) sensorValue.value).intValue() > this.topOfRange) {
+                    currentState = State.ABOVE_RANGE;
+                } else {
+                    currentState = State.WITHIN_RANGE;
+                }
+                if (currentState != this.previousState) {
+                    if (currentState == State.BELOW_RANGE && this.belowRangeEventEnabled) {
+                        BelowRange();
+                    }
+                    if (currentState == State.WITHIN_RANGE && this.withinRangeEventEnabled) {
+                        WithinRange();
+                    }
+                    if (currentState == State.ABOVE_RANGE && this.aboveRangeEventEnabled) {
+                        AboveRange();
+                    }
+                }
+                this.previousState = currentState;
+            }
+        }
+    }
+
     protected void initializeSensor(String functionName) {
         setInputMode(functionName, this.port, this.detectColor ? 13 : ((Integer) mapColorToSensorType.get(Integer.valueOf(this.generateColor))).intValue(), 0);
         resetInputScaledValue(functionName, this.port);
@@ -140,19 +126,19 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "True", editorType = "boolean")
     @SimpleProperty
     public void DetectColor(boolean detectColor) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.detectColor = detectColor;
         if (this.bluetooth != null && this.bluetooth.IsConnected()) {
             initializeSensor("DetectColor");
         }
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
         this.previousColor = 16777215;
         this.previousState = State.UNKNOWN;
-        if (!handlerWasNeeded && handlerIsNeeded) {
-            this.handler.post(this.sensorReader);
+        if (!pollingWasNeeded && pollingIsNeeded) {
+            startPolling();
         }
     }
 
@@ -174,7 +160,10 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
 
     private SensorValue<Integer> getColorValue(String functionName) {
-        byte[] returnPackage = getInputValues(functionName, this.port);
+        return toColorValue(getInputValues(functionName, this.port));
+    }
+
+    private SensorValue<Integer> toColorValue(byte[] returnPackage) {
         if (returnPackage != null && getBooleanValueFromBytes(returnPackage, 4)) {
             int scaledValue = getSWORDValueFromBytes(returnPackage, 12);
             if (mapSensorValueToColor.containsKey(Integer.valueOf(scaledValue))) {
@@ -192,15 +181,15 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void ColorChangedEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.colorChangedEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousColor = 16777215;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -227,7 +216,10 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
 
     private SensorValue<Integer> getLightValue(String functionName) {
-        byte[] returnPackage = getInputValues(functionName, this.port);
+        return toLightValue(getInputValues(functionName, this.port));
+    }
+
+    private SensorValue<Integer> toLightValue(byte[] returnPackage) {
         if (returnPackage == null || !getBooleanValueFromBytes(returnPackage, 4)) {
             return new SensorValue(false, null);
         }
@@ -266,15 +258,15 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void BelowRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.belowRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -291,15 +283,15 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void WithinRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.withinRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -316,15 +308,15 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void AboveRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.aboveRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -353,15 +345,10 @@ public class NxtColorSensor extends LegoMindstormsNxtSensor implements Deleteabl
         this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_NXT_INVALID_GENERATE_COLOR, new Object[0]);
     }
 
-    private boolean isHandlerNeeded() {
+    private boolean isPollingNeeded() {
         if (this.detectColor) {
             return this.colorChangedEventEnabled;
         }
         return this.belowRangeEventEnabled || this.withinRangeEventEnabled || this.aboveRangeEventEnabled;
     }
-
-    public void onDelete() {
-        this.handler.removeCallbacks(this.sensorReader);
-        super.onDelete();
-    }
 }
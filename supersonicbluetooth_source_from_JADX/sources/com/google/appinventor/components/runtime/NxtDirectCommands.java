@@ -2,8 +2,11 @@ package com.google.appinventor.components.runtime;
 
 import android.util.Log;
 import com.google.appinventor.components.annotations.DesignerComponent;
+import com.google.appinventor.components.annotations.PropertyCategory;
+import com.google.appinventor.components.annotations.SimpleEvent;
 import com.google.appinventor.components.annotations.SimpleFunction;
 import com.google.appinventor.components.annotations.SimpleObject;
+import com.google.appinventor.components.annotations.SimpleProperty;
 import com.google.appinventor.components.annotations.UsesPermissions;
 import com.google.appinventor.components.common.ComponentCategory;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
@@ -18,11 +21,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 @SimpleObject
 @DesignerComponent(category = ComponentCategory.LEGOMINDSTORMS, description = "A component that provides a low-level interface to a LEGO MINDSTORMS NXT robot, with functions to send NXT Direct Commands.", iconName = "images/legoMindstormsNxt.png", nonVisible = true, version = 1)
 @UsesPermissions(permissionNames = "android.permission.INTERNET,android.permission.WRITE_EXTERNAL_STORAGE,android.permission.READ_EXTERNAL_STORAGE")
 public class NxtDirectCommands extends LegoMindstormsNxtBase {
+    private static final int STREAM_STOP_TIMEOUT = 1000;
+    private ScheduledExecutorService streamScheduler;
+
     public NxtDirectCommands(ComponentContainer container) {
         super(container, "NxtDirectCommands");
     }
@@ -175,22 +185,140 @@ public class NxtDirectCommands extends LegoMindstormsNxtBase {
             if (returnPackage == null) {
                 return new ArrayList();
             }
-            List<Object> inputValues = new ArrayList();
-            inputValues.add(Boolean.valueOf(getBooleanValueFromBytes(returnPackage, 4)));
-            inputValues.add(Boolean.valueOf(getBooleanValueFromBytes(returnPackage, 5)));
-            inputValues.add(Integer.valueOf(getUBYTEValueFromBytes(returnPackage, 6)));
-            inputValues.add(Integer.valueOf(getUBYTEValueFromBytes(returnPackage, 7)));
-            inputValues.add(Integer.valueOf(getUWORDValueFromBytes(returnPackage, 8)));
-            inputValues.add(Integer.valueOf(getUWORDValueFromBytes(returnPackage, 10)));
-            inputValues.add(Integer.valueOf(getSWORDValueFromBytes(returnPackage, 12)));
-            inputValues.add(Integer.valueOf(getSWORDValueFromBytes(returnPackage, 14)));
-            return inputValues;
+            return toInputValues(returnPackage);
         } catch (IllegalArgumentException e) {
             this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_NXT_INVALID_SENSOR_PORT, sensorPortLetter);
             return new ArrayList();
         }
     }
 
+    private List<Object> toInputValues(byte[] returnPackage) {
+        List<Object> inputValues = new ArrayList();
+        inputValues.add(Boolean.valueOf(getBooleanValueFromBytes(returnPackage, 4)));
+        inputValues.add(Boolean.valueOf(getBooleanValueFromBytes(returnPackage, 5)));
+        inputValues.add(Integer.valueOf(getUBYTEValueFromBytes(returnPackage, 6)));
+        inputValues.add(Integer.valueOf(getUBYTEValueFromBytes(returnPackage, 7)));
+        inputValues.add(Integer.valueOf(getUWORDValueFromBytes(returnPackage, 8)));
+        inputValues.add(Integer.valueOf(getUWORDValueFromBytes(returnPackage, 10)));
+        inputValues.add(Integer.valueOf(getSWORDValueFromBytes(returnPackage, 12)));
+        inputValues.add(Integer.valueOf(getSWORDValueFromBytes(returnPackage, 14)));
+        return inputValues;
+    }
+
+    @SimpleFunction(description = "Start reading the input values of the given sensor ports every intervalMilliseconds. The requests for all ports are sent back to back and the results are reported together by the InputValuesStreamed event. Assumes sensor types have been configured via SetInputMode.")
+    public void StartStreaming(YailList sensorPortLetters, int intervalMilliseconds) {
+        String functionName = "StartStreaming";
+        if (checkBluetooth(functionName)) {
+            final String[] letters = sensorPortLetters.toStringArray();
+            final byte[][] commands = new byte[letters.length][];
+            for (int i = 0; i < letters.length; i++) {
+                try {
+                    byte[] command = new byte[3];
+                    command[0] = (byte) 0;
+                    command[1] = (byte) 7;
+                    copyUBYTEValueToBytes(convertSensorPortLetterToNumber(letters[i]), command, 2);
+                    commands[i] = command;
+                } catch (IllegalArgumentException e) {
+                    this.form.dispatchErrorOccurredEvent(this, functionName, ErrorMessages.ERROR_NXT_INVALID_SENSOR_PORT, letters[i]);
+                    return;
+                }
+            }
+            stopStreaming();
+            if (commands.length != 0) {
+                final BluetoothClient bluetoothClient = this.bluetooth;
+                final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, NxtDirectCommands.this.logTag);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                this.streamScheduler = scheduler;
+                scheduler.scheduleAtFixedRate(new Runnable() {
+                    public void run() {
+                        try {
+                            NxtDirectCommands.this.streamInputValues(scheduler, bluetoothClient, letters, commands);
+                        } catch (RuntimeException e) {
+                            Log.w(NxtDirectCommands.this.logTag, "Error while streaming input values: " + e.getMessage());
+                        }
+                    }
+                }, 0, (long) Math.max(intervalMilliseconds, 1), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @SimpleFunction(description = "Stop reading input values started by StartStreaming.")
+    public void StopStreaming() {
+        stopStreaming();
+    }
+
+    @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "Whether input values are being read by StartStreaming.")
+    public boolean IsStreaming() {
+        return this.streamScheduler != null;
+    }
+
+    @SimpleEvent(description = "Input values have been read by StartStreaming. sensorPortLetters lists the ports that returned valid values and inputValues holds a list of values for each of them, in the same form as GetInputValues. timestamp is the time in milliseconds at which the values were received.")
+    public void InputValuesStreamed(long timestamp, YailList sensorPortLetters, YailList inputValues) {
+        EventDispatcher.dispatchEvent(this, "InputValuesStreamed", Long.valueOf(timestamp), sensorPortLetters, inputValues);
+    }
+
+    private void streamInputValues(final ScheduledExecutorService scheduler, BluetoothClient bluetoothClient, String[] letters, byte[][] commands) {
+        if (bluetoothClient.IsConnected()) {
+            byte[][] returnPackages = NxtLink.forClient(bluetoothClient).exchange("InputValuesStreamed", commands);
+            final long timestamp = System.currentTimeMillis();
+            final List<Object> ports = new ArrayList();
+            final List<Object> values = new ArrayList();
+            for (int i = 0; i < returnPackages.length; i++) {
+                byte[] returnPackage = returnPackages[i];
+                if (returnPackage != null && returnPackage.length == 16 && returnPackage[1] == (byte) 7 && returnPackage[2] == (byte) 0) {
+                    ports.add(letters[i]);
+                    values.add(YailList.makeList(toInputValues(returnPackage)));
+                }
+            }
+            if (!ports.isEmpty()) {
+                this.form.runOnUiThread(new Runnable() {
+                    public void run() {
+                        if (NxtDirectCommands.this.streamScheduler == scheduler) {
+                            NxtDirectCommands.this.InputValuesStreamed(timestamp, YailList.makeList(ports), YailList.makeList(values));
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private void stopStreaming() {
+        if (this.streamScheduler != null) {
+            this.streamScheduler.shutdown();
+            this.streamScheduler = null;
+        }
+    }
+
+    private void stopStreamingBeforeDisconnect() {
+        ScheduledExecutorService stopped = this.streamScheduler;
+        this.streamScheduler = null;
+        if (stopped != null) {
+            stopped.shutdownNow();
+            try {
+                if (!stopped.awaitTermination(STREAM_STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    Log.w(this.logTag, "Input value stream did not finish before disconnecting.");
+                }
+            } catch (InterruptedException e) {
+                Log.w(this.logTag, "Interrupted while stopping the input value stream.");
+            }
+        }
+    }
+
+    public void beforeDisconnect(BluetoothConnectionBase bluetoothConnection) {
+        stopStreamingBeforeDisconnect();
+        super.beforeDisconnect(bluetoothConnection);
+    }
+
+    public void onDelete() {
+        stopStreaming();
+        super.onDelete();
+    }
+
     @SimpleFunction(description = "Reset the scaled value of an input sensor on the robot.")
     public void ResetInputScaledValue(String sensorPortLetter) {
         String functionName = "ResetInputScaledValue";
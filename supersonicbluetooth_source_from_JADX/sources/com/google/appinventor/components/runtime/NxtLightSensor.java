@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -20,49 +19,10 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
     private boolean belowRangeEventEnabled;
     private int bottomOfRange;
     private boolean generateLight;
-    private Handler handler = new Handler();
     private State previousState = State.UNKNOWN;
-    private final Runnable sensorReader = new C03141();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.NxtLightSensor$1 */
-    class C03141 implements Runnable {
-        C03141() {
-        }
-
-        public void run() {
-            if (NxtLightSensor.this.bluetooth != null && NxtLightSensor.this.bluetooth.IsConnected()) {
-                SensorValue<Integer> sensorValue = NxtLightSensor.this.getLightValue("");
-                if (sensorValue.valid) {
-                    State currentState;
-                    if (((Integer) sensorValue.value).intValue() < NxtLightSensor.this.bottomOfRange) {
-                        currentState = State.BELOW_RANGE;
-                    } else if (((Integer) sensorValue.value).intValue() > NxtLightSensor.this.topOfRange) {
-                        currentState = State.ABOVE_RANGE;
-                    } else {
-                        currentState = State.WITHIN_RANGE;
-                    }
-                    if (currentState != NxtLightSensor.this.previousState) {
-                        if (currentState == State.BELOW_RANGE && NxtLightSensor.this.belowRangeEventEnabled) {
-                            NxtLightSensor.this.BelowRange();
-                        }
-                        if (currentState == State.WITHIN_RANGE && NxtLightSensor.this.withinRangeEventEnabled) {
-                            NxtLightSensor.this.WithinRange();
-                        }
-                        if (currentState == State.ABOVE_RANGE && NxtLightSensor.this.aboveRangeEventEnabled) {
-                            NxtLightSensor.this.AboveRange();
-                        }
-                    }
-                    NxtLightSensor.this.previousState = currentState;
-                }
-            }
-            if (NxtLightSensor.this.isHandlerNeeded()) {
-                NxtLightSensor.this.handler.post(NxtLightSensor.this.sensorReader);
-            }
-        }
-    }
-
     private enum State {
         UNKNOWN,
         BELOW_RANGE,
@@ -81,6 +41,32 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
         GenerateLight(false);
     }
 
+    protected void inputValuesPolled(byte[] returnPackage) {
+        SensorValue<Integer> sensorValue = toLightValue(returnPackage);
+        if (sensorValue.valid) {
+            State currentState;
+            if (((Integer) sensorValue.value).intValue() < this.bottomOfRange) {
+                currentState = State.BELOW_RANGE;
+            } else if (((Integer) sensorValue.value).intValue() > this.topOfRange) {
+                currentState = State.ABOVE_RANGE;
+            } else {
+                currentState = State.WITHIN_RANGE;
+            }
+            if (currentState != this.previousState) {
+                if (currentState == State.BELOW_RANGE && this.belowRangeEventEnabled) {
+                    BelowRange();
+                }
+                if (currentState == State.WITHIN_RANGE && this.withinRangeEventEnabled) {
+                    WithinRange();
+                }
+                if (currentState == State.ABOVE_RANGE && this.aboveRangeEventEnabled) {
+                    AboveRange();
+                }
+            }
+            this.previousState = currentState;
+        }
+    }
+
     protected void initializeSensor(String functionName) {
         setInputMode(functionName, this.port, this.generateLight ? 5 : 6, 128);
     }
@@ -119,7 +105,10 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
 
     private SensorValue<Integer> getLightValue(String functionName) {
-        byte[] returnPackage = getInputValues(functionName, this.port);
+        return toLightValue(getInputValues(functionName, this.port));
+    }
+
+    private SensorValue<Integer> toLightValue(byte[] returnPackage) {
         if (returnPackage == null || !getBooleanValueFromBytes(returnPackage, 4)) {
             return new SensorValue(false, null);
         }
@@ -158,15 +147,15 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void BelowRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.belowRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -183,15 +172,15 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void WithinRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.withinRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -208,15 +197,15 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void AboveRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.aboveRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -225,12 +214,7 @@ public class NxtLightSensor extends LegoMindstormsNxtSensor implements Deleteabl
         EventDispatcher.dispatchEvent(this, "AboveRange", new Object[0]);
     }
 
-    private boolean isHandlerNeeded() {
+    private boolean isPollingNeeded() {
         return this.belowRangeEventEnabled || this.withinRangeEventEnabled || this.aboveRangeEventEnabled;
     }
-
-    public void onDelete() {
-        this.handler.removeCallbacks(this.sensorReader);
-        super.onDelete();
-    }
 }
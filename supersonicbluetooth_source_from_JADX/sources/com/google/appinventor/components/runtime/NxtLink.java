@@ -0,0 +1,60 @@
+package com.google.appinventor.components.runtime;
+
+import com.google.appinventor.components.runtime.util.FramedPacket;
+
+final class NxtLink {
+    private final BluetoothClient bluetooth;
+    private final FramedPacket packet = new FramedPacket(2, 66);
+    private final byte[] replyHeader = new byte[2];
+
+    private NxtLink(BluetoothClient bluetooth) {
+        this.bluetooth = bluetooth;
+    }
+
+    static synchronized NxtLink forClient(BluetoothClient bluetooth) {
+        NxtLink link = bluetooth.nxtLink;
+        if (link == null) {
+            link = new NxtLink(bluetooth);
+            bluetooth.nxtLink = link;
+        }
+        return link;
+    }
+
+    synchronized void sendCommand(String functionName, byte[] command) {
+        this.packet.frame(command);
+        this.packet.putUnsignedShort(0, command.length);
+        this.bluetooth.write(functionName, this.packet.array(), 0, this.packet.length());
+    }
+
+    synchronized void sendCommands(String functionName, byte[][] commands) {
+        this.packet.reset();
+        for (byte[] command : commands) {
+            this.packet.putUnsignedShort(this.packet.append(command), command.length);
+        }
+        this.bluetooth.write(functionName, this.packet.array(), 0, this.packet.length());
+    }
+
+    synchronized byte[][] exchange(String functionName, byte[][] commands) {
+        byte[][] returnPackages = new byte[commands.length][];
+        sendCommands(functionName, commands);
+        for (int i = 0; i < commands.length; i++) {
+            returnPackages[i] = receiveReturnPackage(functionName);
+            if (returnPackages[i] == null) {
+                break;
+            }
+        }
+        return returnPackages;
+    }
+
+    synchronized byte[] receiveReturnPackage(String functionName) {
+        if (this.bluetooth.read(functionName, this.replyHeader, 0, 2) != 2) {
+            return null;
+        }
+        int length = (this.replyHeader[0] & 255) | ((this.replyHeader[1] & 255) << 8);
+        byte[] returnPackage = new byte[length];
+        if (length <= 0 || this.bluetooth.read(functionName, returnPackage, 0, length) == length) {
+            return returnPackage;
+        }
+        return null;
+    }
+}
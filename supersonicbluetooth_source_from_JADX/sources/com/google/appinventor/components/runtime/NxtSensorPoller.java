@@ -0,0 +1,51 @@
+package com.google.appinventor.components.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class NxtSensorPoller extends LegoMindstormsSensorPoller<LegoMindstormsNxtSensor> {
+    private NxtSensorPoller(BluetoothClient bluetooth) {
+        super(bluetooth);
+    }
+
+    static synchronized NxtSensorPoller forClient(BluetoothClient bluetooth) {
+        NxtSensorPoller poller = bluetooth.nxtSensorPoller;
+        if (poller == null) {
+            poller = new NxtSensorPoller(bluetooth);
+            bluetooth.nxtSensorPoller = poller;
+        }
+        return poller;
+    }
+
+    protected void poll(List<LegoMindstormsNxtSensor> sensors) {
+        List<LegoMindstormsNxtSensor> batched = new ArrayList();
+        List<LegoMindstormsNxtSensor> others = new ArrayList();
+        for (LegoMindstormsNxtSensor sensor : sensors) {
+            if (sensor.bluetooth != this.bluetooth) {
+                remove(sensor);
+            } else if (sensor.readsInputValues()) {
+                batched.add(sensor);
+            } else {
+                others.add(sensor);
+            }
+        }
+        if (!batched.isEmpty()) {
+            int[] ports = new int[batched.size()];
+            byte[][] commands = new byte[ports.length][];
+            for (int i = 0; i < ports.length; i++) {
+                ports[i] = ((LegoMindstormsNxtSensor) batched.get(i)).port;
+                commands[i] = new byte[]{(byte) 0, (byte) 7, (byte) ports[i]};
+            }
+            byte[][] returnPackages = NxtLink.forClient(this.bluetooth).exchange("", commands);
+            for (int i2 = 0; i2 < ports.length; i2++) {
+                byte[] returnPackage = returnPackages[i2];
+                if (returnPackage != null && returnPackage.length == 16 && returnPackage[1] == (byte) 7 && returnPackage[2] == (byte) 0) {
+                    ((LegoMindstormsNxtSensor) batched.get(i2)).postInputValues(ports[i2], returnPackage);
+                }
+            }
+        }
+        for (LegoMindstormsNxtSensor sensor2 : others) {
+            sensor2.pollSensor();
+        }
+    }
+}
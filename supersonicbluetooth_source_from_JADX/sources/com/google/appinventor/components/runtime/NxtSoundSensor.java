@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -19,49 +18,10 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     private boolean aboveRangeEventEnabled;
     private boolean belowRangeEventEnabled;
     private int bottomOfRange;
-    private Handler handler = new Handler();
     private State previousState = State.UNKNOWN;
-    private final Runnable sensorReader = new C03151();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.NxtSoundSensor$1 */
-    class C03151 implements Runnable {
-        C03151() {
-        }
-
-        public void run() {
-            if (NxtSoundSensor.this.bluetooth != null && NxtSoundSensor.this.bluetooth.IsConnected()) {
-                SensorValue<Integer> sensorValue = NxtSoundSensor.this.getSoundValue("");
-                if (sensorValue.valid) {
-                    State currentState;
-                    if (((Integer) sensorValue.value).intValue() < NxtSoundSensor.this.bottomOfRange) {
-                        currentState = State.BELOW_RANGE;
-                    } else if (((Integer) sensorValue.value).intValue() > NxtSoundSensor.this.topOfRange) {
-                        currentState = State.ABOVE_RANGE;
-                    } else {
-                        currentState = State.WITHIN_RANGE;
-                    }
-                    if (currentState != NxtSoundSensor.this.previousState) {
-                        if (currentState == State.BELOW_RANGE && NxtSoundSensor.this.belowRangeEventEnabled) {
-                            NxtSoundSensor.this.BelowRange();
-                        }
-                        if (currentState == State.WITHIN_RANGE && NxtSoundSensor.this.withinRangeEventEnabled) {
-                            NxtSoundSensor.this.WithinRange();
-                        }
-                        if (currentState == State.ABOVE_RANGE && NxtSoundSensor.this.aboveRangeEventEnabled) {
-                            NxtSoundSensor.this.AboveRange();
-                        }
-                    }
-                    NxtSoundSensor.this.previousState = currentState;
-                }
-            }
-            if (NxtSoundSensor.this.isHandlerNeeded()) {
-                NxtSoundSensor.this.handler.post(NxtSoundSensor.this.sensorReader);
-            }
-        }
-    }
-
     private enum State {
         UNKNOWN,
         BELOW_RANGE,
@@ -79,6 +39,32 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
         AboveRangeEventEnabled(false);
     }
 
+    protected void inputValuesPolled(byte[] returnPackage) {
+        SensorValue<Integer> sensorValue = toSoundValue(returnPackage);
+        if (sensorValue.valid) {
+            State currentState;
+            if (((Integer) sensorValue.value).intValue() < this.bottomOfRange) {
+                currentState = State.BELOW_RANGE;
+            } else if (((Integer) sensorValue.value).intValue() > this.topOfRange) {
+                currentState = State.ABOVE_RANGE;
+            } else {
+                currentState = State.WITHIN_RANGE;
+            }
+            if (currentState != this.previousState) {
+                if (currentState == State.BELOW_RANGE && this.belowRangeEventEnabled) {
+                    BelowRange();
+                }
+                if (currentState == State.WITHIN_RANGE && this.withinRangeEventEnabled) {
+                    WithinRange();
+                }
+                if (currentState == State.ABOVE_RANGE && this.aboveRangeEventEnabled) {
+                    AboveRange();
+                }
+            }
+            this.previousState = currentState;
+        }
+    }
+
     protected void initializeSensor(String functionName) {
         setInputMode(functionName, this.port, 7, 0);
     }
@@ -103,7 +89,10 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
 
     private SensorValue<Integer> getSoundValue(String functionName) {
-        byte[] returnPackage = getInputValues(functionName, this.port);
+        return toSoundValue(getInputValues(functionName, this.port));
+    }
+
+    private SensorValue<Integer> toSoundValue(byte[] returnPackage) {
         if (returnPackage == null || !getBooleanValueFromBytes(returnPackage, 4)) {
             return new SensorValue(false, null);
         }
@@ -142,15 +131,15 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void BelowRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.belowRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -167,15 +156,15 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void WithinRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.withinRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -192,15 +181,15 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void AboveRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.aboveRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -209,12 +198,7 @@ public class NxtSoundSensor extends LegoMindstormsNxtSensor implements Deleteabl
         EventDispatcher.dispatchEvent(this, "AboveRange", new Object[0]);
     }
 
-    private boolean isHandlerNeeded() {
+    private boolean isPollingNeeded() {
         return this.belowRangeEventEnabled || this.withinRangeEventEnabled || this.aboveRangeEventEnabled;
     }
-
-    public void onDelete() {
-        this.handler.removeCallbacks(this.sensorReader);
-        super.onDelete();
-    }
 }
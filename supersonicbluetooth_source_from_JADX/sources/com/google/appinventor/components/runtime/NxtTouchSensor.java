@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -14,38 +13,9 @@ import com.google.appinventor.components.common.ComponentCategory;
 @DesignerComponent(category = ComponentCategory.LEGOMINDSTORMS, description = "A component that provides a high-level interface to a touch sensor on a LEGO MINDSTORMS NXT robot.", iconName = "images/legoMindstormsNxt.png", nonVisible = true, version = 1)
 public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteable {
     private static final String DEFAULT_SENSOR_PORT = "1";
-    private Handler handler = new Handler();
     private boolean pressedEventEnabled;
     private State previousState = State.UNKNOWN;
     private boolean releasedEventEnabled;
-    private final Runnable sensorReader = new C03161();
-
-    /* renamed from: com.google.appinventor.components.runtime.NxtTouchSensor$1 */
-    class C03161 implements Runnable {
-        C03161() {
-        }
-
-        public void run() {
-            if (NxtTouchSensor.this.bluetooth != null && NxtTouchSensor.this.bluetooth.IsConnected()) {
-                SensorValue<Boolean> sensorValue = NxtTouchSensor.this.getPressedValue("");
-                if (sensorValue.valid) {
-                    State currentState = ((Boolean) sensorValue.value).booleanValue() ? State.PRESSED : State.RELEASED;
-                    if (currentState != NxtTouchSensor.this.previousState) {
-                        if (currentState == State.PRESSED && NxtTouchSensor.this.pressedEventEnabled) {
-                            NxtTouchSensor.this.Pressed();
-                        }
-                        if (currentState == State.RELEASED && NxtTouchSensor.this.releasedEventEnabled) {
-                            NxtTouchSensor.this.Released();
-                        }
-                    }
-                    NxtTouchSensor.this.previousState = currentState;
-                }
-            }
-            if (NxtTouchSensor.this.isHandlerNeeded()) {
-                NxtTouchSensor.this.handler.post(NxtTouchSensor.this.sensorReader);
-            }
-        }
-    }
 
     private enum State {
         UNKNOWN,
@@ -60,6 +30,22 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
         ReleasedEventEnabled(false);
     }
 
+    protected void inputValuesPolled(byte[] returnPackage) {
+        SensorValue<Boolean> sensorValue = toPressedValue(returnPackage);
+        if (sensorValue.valid) {
+            State currentState = ((Boolean) sensorValue.value).booleanValue() ? State.PRESSED : State.RELEASED;
+            if (currentState != this.previousState) {
+                if (currentState == State.PRESSED && this.pressedEventEnabled) {
+                    Pressed();
+                }
+                if (currentState == State.RELEASED && this.releasedEventEnabled) {
+                    Released();
+                }
+            }
+            this.previousState = currentState;
+        }
+    }
+
     protected void initializeSensor(String functionName) {
         setInputMode(functionName, this.port, 1, 32);
     }
@@ -84,8 +70,11 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
     }
 
     private SensorValue<Boolean> getPressedValue(String functionName) {
+        return toPressedValue(getInputValues(functionName, this.port));
+    }
+
+    private SensorValue<Boolean> toPressedValue(byte[] returnPackage) {
         boolean z = false;
-        byte[] returnPackage = getInputValues(functionName, this.port);
         if (returnPackage == null || !getBooleanValueFromBytes(returnPackage, 4)) {
             return new SensorValue(false, null);
         }
@@ -103,15 +92,15 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void PressedEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.pressedEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -128,15 +117,15 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void ReleasedEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.releasedEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -145,12 +134,7 @@ public class NxtTouchSensor extends LegoMindstormsNxtSensor implements Deleteabl
         EventDispatcher.dispatchEvent(this, "Released", new Object[0]);
     }
 
-    private boolean isHandlerNeeded() {
+    private boolean isPollingNeeded() {
         return this.pressedEventEnabled || this.releasedEventEnabled;
     }
-
-    public void onDelete() {
-        this.handler.removeCallbacks(this.sensorReader);
-        super.onDelete();
-    }
 }
@@ -1,6 +1,5 @@
 package com.google.appinventor.components.runtime;
 
-import android.os.Handler;
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
 import com.google.appinventor.components.annotations.PropertyCategory;
@@ -21,49 +20,10 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
     private boolean aboveRangeEventEnabled;
     private boolean belowRangeEventEnabled;
     private int bottomOfRange;
-    private Handler handler = new Handler();
     private State previousState = State.UNKNOWN;
-    private final Runnable sensorReader = new C03171();
     private int topOfRange;
     private boolean withinRangeEventEnabled;
 
-    /* renamed from: com.google.appinventor.components.runtime.NxtUltrasonicSensor$1 */
-    class C03171 implements Runnable {
-        C03171() {
-        }
-
-        public void run() {
-            if (NxtUltrasonicSensor.this.bluetooth != null && NxtUltrasonicSensor.this.bluetooth.IsConnected()) {
-                SensorValue<Integer> sensorValue = NxtUltrasonicSensor.this.getDistanceValue("");
-                if (sensorValue.valid) {
-                    State currentState;
-                    if (((Integer) sensorValue.value).intValue() < NxtUltrasonicSensor.this.bottomOfRange) {
-                        currentState = State.BELOW_RANGE;
-                    } else if (((Integer) sensorValue.value).intValue() > NxtUltrasonicSensor.this.topOfRange) {
-                        currentState = State.ABOVE_RANGE;
-                    } else {
-                        currentState = State.WITHIN_RANGE;
-                    }
-                    if (currentState != NxtUltrasonicSensor.this.previousState) {
-                        if (currentState == State.BELOW_RANGE && NxtUltrasonicSensor.this.belowRangeEventEnabled) {
-                            NxtUltrasonicSensor.this.BelowRange();
-                        }
-                        if (currentState == State.WITHIN_RANGE && NxtUltrasonicSensor.this.withinRangeEventEnabled) {
-                            NxtUltrasonicSensor.this.WithinRange();
-                        }
-                        if (currentState == State.ABOVE_RANGE && NxtUltrasonicSensor.this.aboveRangeEventEnabled) {
-                            NxtUltrasonicSensor.this.AboveRange();
-                        }
-                    }
-                    NxtUltrasonicSensor.this.previousState = currentState;
-                }
-            }
-            if (NxtUltrasonicSensor.this.isHandlerNeeded()) {
-                NxtUltrasonicSensor.this.handler.post(NxtUltrasonicSensor.this.sensorReader);
-            }
-        }
-    }
-
     private enum State {
         UNKNOWN,
         BELOW_RANGE,
@@ -81,6 +41,47 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
         AboveRangeEventEnabled(false);
     }
 
+    protected boolean readsInputValues() {
+        return false;
+    }
+
+    protected void pollSensor() {
+        final SensorValue<Integer> sensorValue = getDistanceValue("");
+        if (sensorValue.valid) {
+            final int port = this.port;
+            this.form.runOnUiThread(new Runnable() {
+                public void run() {
+                    if (NxtUltrasonicSensor.this.port == port && NxtUltrasonicSensor.this.isPollingNeeded()) {
+                        NxtUltrasonicSensor.this.distancePolled(((Integer) sensorValue.value).intValue());
+                    }
+                }
+            });
+        }
+    }
+
+    private void distancePolled(int distance) {
+        State currentState;
+        if (distance < this.bottomOfRange) {
+            currentState = State.BELOW_RANGE;
+        } else if (distance > this.topOfRange) {
+            currentState = State.ABOVE_RANGE;
+        } else {
+            currentState = State.WITHIN_RANGE;
+        }
+        if (currentState != this.previousState) {
+            if (currentState == State.BELOW_RANGE && this.belowRangeEventEnabled) {
+                BelowRange();
+            }
+            if (currentState == State.WITHIN_RANGE && this.withinRangeEventEnabled) {
+                WithinRange();
+            }
+            if (currentState == State.ABOVE_RANGE && this.aboveRangeEventEnabled) {
+                AboveRange();
+            }
+        }
+        this.previousState = currentState;
+    }
+
     protected void initializeSensor(String functionName) {
         setInputMode(functionName, this.port, 11, 0);
         configureUltrasonicSensor(functionName);
@@ -110,20 +111,22 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
     }
 
     private SensorValue<Integer> getDistanceValue(String functionName) {
-        lsWrite(functionName, this.port, new byte[]{(byte) 2, Opcode.JR_TRUE}, 1);
-        for (int i = 0; i < 3; i++) {
-            if (lsGetStatus(functionName, this.port) > 0) {
-                byte[] returnPackage = lsRead(functionName, this.port);
-                if (returnPackage != null) {
-                    int value = getUBYTEValueFromBytes(returnPackage, 4);
-                    if (value >= 0 && value <= Telnet.DONT) {
-                        return new SensorValue(true, Integer.valueOf(value));
+        synchronized (linkLock()) {
+            lsWrite(functionName, this.port, new byte[]{(byte) 2, Opcode.JR_TRUE}, 1);
+            for (int i = 0; i < 3; i++) {
+                if (lsGetStatus(functionName, this.port) > 0) {
+                    byte[] returnPackage = lsRead(functionName, this.port);
+                    if (returnPackage != null) {
+                        int value = getUBYTEValueFromBytes(returnPackage, 4);
+                        if (value >= 0 && value <= Telnet.DONT) {
+                            return new SensorValue(true, Integer.valueOf(value));
+                        }
                     }
+                    return new SensorValue(false, null);
                 }
-                return new SensorValue(false, null);
             }
+            return new SensorValue(false, null);
         }
-        return new SensorValue(false, null);
     }
 
     @SimpleProperty(category = PropertyCategory.BEHAVIOR, description = "The bottom of the range used for the BelowRange, WithinRange, and AboveRange events.")
@@ -158,15 +161,15 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void BelowRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.belowRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -183,15 +186,15 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void WithinRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.withinRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -208,15 +211,15 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
     @DesignerProperty(defaultValue = "False", editorType = "boolean")
     @SimpleProperty
     public void AboveRangeEventEnabled(boolean enabled) {
-        boolean handlerWasNeeded = isHandlerNeeded();
+        boolean pollingWasNeeded = isPollingNeeded();
         this.aboveRangeEventEnabled = enabled;
-        boolean handlerIsNeeded = isHandlerNeeded();
-        if (handlerWasNeeded && !handlerIsNeeded) {
-            this.handler.removeCallbacks(this.sensorReader);
+        boolean pollingIsNeeded = isPollingNeeded();
+        if (pollingWasNeeded && !pollingIsNeeded) {
+            stopPolling();
         }
-        if (!handlerWasNeeded && handlerIsNeeded) {
+        if (!pollingWasNeeded && pollingIsNeeded) {
             this.previousState = State.UNKNOWN;
-            this.handler.post(this.sensorReader);
+            startPolling();
         }
     }
 
@@ -225,12 +228,7 @@ public class NxtUltrasonicSensor extends LegoMindstormsNxtSensor implements Dele
         EventDispatcher.dispatchEvent(this, "AboveRange", new Object[0]);
     }
 
-    private boolean isHandlerNeeded() {
+    private boolean isPollingNeeded() {
         return this.belowRangeEventEnabled || this.withinRangeEventEnabled || this.aboveRangeEventEnabled;
     }
-
-    public void onDelete() {
-        this.handler.removeCallbacks(this.sensorReader);
-        super.onDelete();
-    }
 }
@@ -59,7 +59,7 @@ public class TinyDB extends AndroidNonvisibleComponent implements Component, Del
         try {
             String value = this.sharedPreferences.getString(tag, "");
             if (value.length() != 0) {
-                valueIfTagNotThere = JsonUtil.getObjectFromJson(value);
+                valueIfTagNotThere = JsonUtil.getYailObjectFromJson(value);
             }
             return valueIfTagNotThere;
         } catch (JSONException e) {
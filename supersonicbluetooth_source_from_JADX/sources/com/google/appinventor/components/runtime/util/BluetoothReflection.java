@@ -9,108 +9,161 @@ import java.util.Set;
 import java.util.UUID;
 
 public class BluetoothReflection {
+    private static final CachedMethod ADAPTER_CHECK_BLUETOOTH_ADDRESS = new CachedMethod("checkBluetoothAddress", String.class);
+    private static final CachedMethod ADAPTER_GET_BONDED_DEVICES = new CachedMethod("getBondedDevices");
+    private static final CachedMethod ADAPTER_GET_DEFAULT_ADAPTER = new CachedMethod("getDefaultAdapter");
+    private static final CachedMethod ADAPTER_GET_REMOTE_DEVICE = new CachedMethod("getRemoteDevice", String.class);
+    private static final CachedMethod ADAPTER_IS_ENABLED = new CachedMethod("isEnabled");
+    private static final CachedMethod ADAPTER_LISTEN_USING_INSECURE_RFCOMM_WITH_SERVICE_RECORD = new CachedMethod("listenUsingInsecureRfcommWithServiceRecord", String.class, UUID.class);
+    private static final CachedMethod ADAPTER_LISTEN_USING_RFCOMM_WITH_SERVICE_RECORD = new CachedMethod("listenUsingRfcommWithServiceRecord", String.class, UUID.class);
+    private static final CachedMethod CLASS_GET_DEVICE_CLASS = new CachedMethod("getDeviceClass");
+    private static final CachedMethod DEVICE_CREATE_INSECURE_RFCOMM_SOCKET_TO_SERVICE_RECORD = new CachedMethod("createInsecureRfcommSocketToServiceRecord", UUID.class);
+    private static final CachedMethod DEVICE_CREATE_RFCOMM_SOCKET_TO_SERVICE_RECORD = new CachedMethod("createRfcommSocketToServiceRecord", UUID.class);
+    private static final CachedMethod DEVICE_GET_ADDRESS = new CachedMethod("getAddress");
+    private static final CachedMethod DEVICE_GET_BLUETOOTH_CLASS = new CachedMethod("getBluetoothClass");
+    private static final CachedMethod DEVICE_GET_BOND_STATE = new CachedMethod("getBondState");
+    private static final CachedMethod DEVICE_GET_NAME = new CachedMethod("getName");
+    private static final CachedMethod SERVER_SOCKET_ACCEPT = new CachedMethod("accept");
+    private static final CachedMethod SERVER_SOCKET_CLOSE = new CachedMethod("close");
+    private static final CachedMethod SOCKET_CLOSE = new CachedMethod("close");
+    private static final CachedMethod SOCKET_CONNECT = new CachedMethod("connect");
+    private static final CachedMethod SOCKET_GET_INPUT_STREAM = new CachedMethod("getInputStream");
+    private static final CachedMethod SOCKET_GET_OUTPUT_STREAM = new CachedMethod("getOutputStream");
+    private static final CachedMethod SOCKET_GET_REMOTE_DEVICE = new CachedMethod("getRemoteDevice");
     private static final int BOND_BONDED = 12;
+    private static volatile Class<?> bluetoothAdapterClass;
 
     private BluetoothReflection() {
     }
 
     public static Object getBluetoothAdapter() {
         try {
-            return invokeStaticMethod(getMethod(Class.forName("android.bluetooth.BluetoothAdapter"), "getDefaultAdapter"));
+            return invokeStaticMethod(ADAPTER_GET_DEFAULT_ADAPTER.get(getBluetoothAdapterClass()));
         } catch (ClassNotFoundException e) {
             return null;
         }
     }
 
+    private static Class<?> getBluetoothAdapterClass() throws ClassNotFoundException {
+        Class<?> clazz = bluetoothAdapterClass;
+        if (clazz == null) {
+            clazz = Class.forName("android.bluetooth.BluetoothAdapter");
+            bluetoothAdapterClass = clazz;
+        }
+        return clazz;
+    }
+
     public static boolean isBluetoothEnabled(Object bluetoothAdapter) {
-        return ((Boolean) invokeMethod(getMethod(bluetoothAdapter.getClass(), "isEnabled"), bluetoothAdapter, new Object[0])).booleanValue();
+        return ((Boolean) invokeMethod(ADAPTER_IS_ENABLED.get(bluetoothAdapter.getClass()), bluetoothAdapter, new Object[0])).booleanValue();
     }
 
     public static Set getBondedDevices(Object bluetoothAdapter) {
-        return (Set) invokeMethod(getMethod(bluetoothAdapter.getClass(), "getBondedDevices"), bluetoothAdapter, new Object[0]);
+        return (Set) invokeMethod(ADAPTER_GET_BONDED_DEVICES.get(bluetoothAdapter.getClass()), bluetoothAdapter, new Object[0]);
     }
 
     public static boolean checkBluetoothAddress(Object bluetoothAdapter, String address) {
-        return ((Boolean) invokeMethod(getMethod(bluetoothAdapter.getClass(), "checkBluetoothAddress", String.class), bluetoothAdapter, address)).booleanValue();
+        return ((Boolean) invokeMethod(ADAPTER_CHECK_BLUETOOTH_ADDRESS.get(bluetoothAdapter.getClass()), bluetoothAdapter, address)).booleanValue();
     }
 
     public static Object getRemoteDevice(Object bluetoothAdapter, String address) throws IllegalArgumentException {
-        return invokeMethodThrowsIllegalArgumentException(getMethod(bluetoothAdapter.getClass(), "getRemoteDevice", String.class), bluetoothAdapter, address);
+        return invokeMethodThrowsIllegalArgumentException(ADAPTER_GET_REMOTE_DEVICE.get(bluetoothAdapter.getClass()), bluetoothAdapter, address);
     }
 
     public static Object listenUsingRfcommWithServiceRecord(Object bluetoothAdapter, String name, UUID uuid) throws IOException {
-        return invokeMethodThrowsIOException(getMethod(bluetoothAdapter.getClass(), "listenUsingRfcommWithServiceRecord", String.class, UUID.class), bluetoothAdapter, name, uuid);
+        return invokeMethodThrowsIOException(ADAPTER_LISTEN_USING_RFCOMM_WITH_SERVICE_RECORD.get(bluetoothAdapter.getClass()), bluetoothAdapter, name, uuid);
     }
 
     public static Object listenUsingInsecureRfcommWithServiceRecord(Object bluetoothAdapter, String name, UUID uuid) throws IOException {
-        return invokeMethodThrowsIOException(getMethod(bluetoothAdapter.getClass(), "listenUsingInsecureRfcommWithServiceRecord", String.class, UUID.class), bluetoothAdapter, name, uuid);
+        return invokeMethodThrowsIOException(ADAPTER_LISTEN_USING_INSECURE_RFCOMM_WITH_SERVICE_RECORD.get(bluetoothAdapter.getClass()), bluetoothAdapter, name, uuid);
     }
 
     public static String getBluetoothDeviceName(Object bluetoothDevice) {
-        return (String) invokeMethod(getMethod(bluetoothDevice.getClass(), "getName"), bluetoothDevice, new Object[0]);
+        return (String) invokeMethod(DEVICE_GET_NAME.get(bluetoothDevice.getClass()), bluetoothDevice, new Object[0]);
     }
 
     public static String getBluetoothDeviceAddress(Object bluetoothDevice) {
-        return (String) invokeMethod(getMethod(bluetoothDevice.getClass(), "getAddress"), bluetoothDevice, new Object[0]);
+        return (String) invokeMethod(DEVICE_GET_ADDRESS.get(bluetoothDevice.getClass()), bluetoothDevice, new Object[0]);
     }
 
     public static boolean isBonded(Object bluetoothDevice) {
-        return ((Integer) invokeMethod(getMethod(bluetoothDevice.getClass(), "getBondState"), bluetoothDevice, new Object[0])).intValue() == 12;
+        return ((Integer) invokeMethod(DEVICE_GET_BOND_STATE.get(bluetoothDevice.getClass()), bluetoothDevice, new Object[0])).intValue() == 12;
     }
 
     public static Object getBluetoothClass(Object bluetoothDevice) {
-        return invokeMethod(getMethod(bluetoothDevice.getClass(), "getBluetoothClass"), bluetoothDevice, new Object[0]);
+        return invokeMethod(DEVICE_GET_BLUETOOTH_CLASS.get(bluetoothDevice.getClass()), bluetoothDevice, new Object[0]);
     }
 
     public static Object createRfcommSocketToServiceRecord(Object bluetoothDevice, UUID uuid) throws IOException {
-        return invokeMethodThrowsIOException(getMethod(bluetoothDevice.getClass(), "createRfcommSocketToServiceRecord", UUID.class), bluetoothDevice, uuid);
+        return invokeMethodThrowsIOException(DEVICE_CREATE_RFCOMM_SOCKET_TO_SERVICE_RECORD.get(bluetoothDevice.getClass()), bluetoothDevice, uuid);
     }
 
     public static Object createInsecureRfcommSocketToServiceRecord(Object bluetoothDevice, UUID uuid) throws IOException {
-        return invokeMethodThrowsIOException(getMethod(bluetoothDevice.getClass(), "createInsecureRfcommSocketToServiceRecord", UUID.class), bluetoothDevice, uuid);
+        return invokeMethodThrowsIOException(DEVICE_CREATE_INSECURE_RFCOMM_SOCKET_TO_SERVICE_RECORD.get(bluetoothDevice.getClass()), bluetoothDevice, uuid);
     }
 
     public static int getDeviceClass(Object bluetoothClass) {
-        return ((Integer) invokeMethod(getMethod(bluetoothClass.getClass(), "getDeviceClass"), bluetoothClass, new Object[0])).intValue();
+        return ((Integer) invokeMethod(CLASS_GET_DEVICE_CLASS.get(bluetoothClass.getClass()), bluetoothClass, new Object[0])).intValue();
     }
 
     public static void connectToBluetoothSocket(Object bluetoothSocket) throws IOException {
-        invokeMethodThrowsIOException(getMethod(bluetoothSocket.getClass(), "connect"), bluetoothSocket, new Object[0]);
+        invokeMethodThrowsIOException(SOCKET_CONNECT.get(bluetoothSocket.getClass()), bluetoothSocket, new Object[0]);
     }
 
     public static InputStream getInputStream(Object bluetoothSocket) throws IOException {
-        return (InputStream) invokeMethodThrowsIOException(getMethod(bluetoothSocket.getClass(), "getInputStream"), bluetoothSocket, new Object[0]);
+        return (InputStream) invokeMethodThrowsIOException(SOCKET_GET_INPUT_STREAM.get(bluetoothSocket.getClass()), bluetoothSocket, new Object[0]);
     }
 
     public static OutputStream getOutputStream(Object bluetoothSocket) throws IOException {
-        return (OutputStream) invokeMethodThrowsIOException(getMethod(bluetoothSocket.getClass(), "getOutputStream"), bluetoothSocket, new Object[0]);
+        return (OutputStream) invokeMethodThrowsIOException(SOCKET_GET_OUTPUT_STREAM.get(bluetoothSocket.getClass()), bluetoothSocket, new Object[0]);
+    }
+
+    public static Object getBluetoothSocketRemoteDevice(Object bluetoothSocket) {
+        return invokeMethod(SOCKET_GET_REMOTE_DEVICE.get(bluetoothSocket.getClass()), bluetoothSocket, new Object[0]);
     }
 
     public static void closeBluetoothSocket(Object bluetoothSocket) throws IOException {
-        invokeMethodThrowsIOException(getMethod(bluetoothSocket.getClass(), "close"), bluetoothSocket, new Object[0]);
+        invokeMethodThrowsIOException(SOCKET_CLOSE.get(bluetoothSocket.getClass()), bluetoothSocket, new Object[0]);
     }
 
     public static Object accept(Object bluetoothServerSocket) throws IOException {
-        return invokeMethodThrowsIOException(getMethod(bluetoothServerSocket.getClass(), "accept"), bluetoothServerSocket, new Object[0]);
+        return invokeMethodThrowsIOException(SERVER_SOCKET_ACCEPT.get(bluetoothServerSocket.getClass()), bluetoothServerSocket, new Object[0]);
     }
 
     public static void closeBluetoothServerSocket(Object bluetoothServerSocket) throws IOException {
-        invokeMethodThrowsIOException(getMethod(bluetoothServerSocket.getClass(), "close"), bluetoothServerSocket, new Object[0]);
+        invokeMethodThrowsIOException(SERVER_SOCKET_CLOSE.get(bluetoothServerSocket.getClass()), bluetoothServerSocket, new Object[0]);
     }
 
-    private static Method getMethod(Class clazz, String name) {
-        try {
-            return clazz.getMethod(name, new Class[0]);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
+    private static final class CachedMethod {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private volatile Resolved resolved;
+
+        private static final class Resolved {
+            final Class<?> clazz;
+            final Method method;
+
+            Resolved(Class<?> clazz, Method method) {
+                this.clazz = clazz;
+                this.method = method;
+            }
         }
-    }
 
-    private static Method getMethod(Class clazz, String name, Class<?>... parameterTypes) {
-        try {
-            return clazz.getMethod(name, parameterTypes);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
+        CachedMethod(String name, Class<?>... parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        Method get(Class<?> clazz) {
+            Resolved resolved = this.resolved;
+            if (resolved == null || resolved.clazz != clazz) {
+                try {
+                    resolved = new Resolved(clazz, clazz.getMethod(this.name, this.parameterTypes));
+                    this.resolved = resolved;
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return resolved.method;
         }
     }
 
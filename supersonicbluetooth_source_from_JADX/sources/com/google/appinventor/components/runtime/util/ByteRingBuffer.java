@@ -0,0 +1,115 @@
+package com.google.appinventor.components.runtime.util;
+
+public final class ByteRingBuffer {
+    private final byte[] buffer;
+    private boolean closed;
+    private int head;
+    private int size;
+
+    public ByteRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    public synchronized int available() {
+        return this.size;
+    }
+
+    public synchronized void write(byte[] src, int off, int len) throws InterruptedException {
+        while (len > 0 && !this.closed) {
+            while (this.size == this.buffer.length && !this.closed) {
+                wait();
+            }
+            if (!this.closed) {
+                int tail = (this.head + this.size) % this.buffer.length;
+                int count = Math.min(len, Math.min(this.buffer.length - this.size, this.buffer.length - tail));
+                System.arraycopy(src, off, this.buffer, tail, count);
+                this.size += count;
+                off += count;
+                len -= count;
+                notifyAll();
+            } else {
+                return;
+            }
+        }
+    }
+
+    public synchronized boolean offer(byte[] src, int off, int len) {
+        if (this.closed || len > this.buffer.length - this.size) {
+            return false;
+        }
+        while (len > 0) {
+            int tail = (this.head + this.size) % this.buffer.length;
+            int count = Math.min(len, this.buffer.length - tail);
+            System.arraycopy(src, off, this.buffer, tail, count);
+            this.size += count;
+            off += count;
+            len -= count;
+        }
+        notifyAll();
+        return true;
+    }
+
+    public synchronized int read(byte[] dst, int off, int len, long timeoutMillis) throws InterruptedException {
+        if (len == 0) {
+            return 0;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (this.size == 0 && !this.closed) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return 0;
+            }
+            wait(remaining);
+        }
+        if (this.size == 0) {
+            return -1;
+        }
+        return take(dst, off, len);
+    }
+
+    public synchronized int read(byte[] dst, int off, int len) throws InterruptedException {
+        if (len == 0) {
+            return 0;
+        }
+        while (this.size == 0 && !this.closed) {
+            wait();
+        }
+        if (this.size == 0) {
+            return -1;
+        }
+        return take(dst, off, len);
+    }
+
+    public synchronized byte[] drain() {
+        byte[] bytes = new byte[this.size];
+        if (bytes.length > 0) {
+            take(bytes, 0, bytes.length);
+        }
+        return bytes;
+    }
+
+    public synchronized void close() {
+        this.closed = true;
+        notifyAll();
+    }
+
+    private int take(byte[] dst, int off, int len) {
+        int total = 0;
+        while (total < len && this.size > 0) {
+            int count = Math.min(len - total, Math.min(this.size, this.buffer.length - this.head));
+            System.arraycopy(this.buffer, this.head, dst, off + total, count);
+            this.head = (this.head + count) % this.buffer.length;
+            this.size -= count;
+            total += count;
+        }
+        notifyAll();
+        return total;
+    }
+}
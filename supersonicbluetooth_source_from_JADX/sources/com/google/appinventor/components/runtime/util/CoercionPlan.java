@@ -0,0 +1,65 @@
+package com.google.appinventor.components.runtime.util;
+
+import gnu.lists.Pair;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CoercionPlan {
+    private static final int MAX_PLANS = 512;
+    private static final Map<Object, CoercionPlan> plans = new IdentityHashMap();
+    private final Coercer[] coercers;
+
+    public interface Coercer {
+        Object coerce(Object obj);
+    }
+
+    public interface Compiler {
+        Coercer compile(Object obj);
+    }
+
+    private CoercionPlan(Coercer[] coercers) {
+        this.coercers = coercers;
+    }
+
+    public static CoercionPlan forTypes(Object typelist, Compiler compiler) {
+        CoercionPlan plan;
+        synchronized (plans) {
+            plan = (CoercionPlan) plans.get(typelist);
+        }
+        if (plan != null) {
+            return plan;
+        }
+        List<Coercer> coercers = new ArrayList();
+        for (Object types = typelist; types instanceof Pair; types = ((Pair) types).getCdr()) {
+            coercers.add(compiler.compile(((Pair) types).getCar()));
+        }
+        plan = new CoercionPlan((Coercer[]) coercers.toArray(new Coercer[coercers.size()]));
+        synchronized (plans) {
+            if (plans.size() >= MAX_PLANS) {
+                plans.clear();
+            }
+            plans.put(typelist, plan);
+        }
+        return plan;
+    }
+
+    public int size() {
+        return this.coercers.length;
+    }
+
+    public boolean coerce(Object arglist, Object[] result, int offset, Object failure) {
+        boolean coercible = true;
+        int i = 0;
+        for (Object args = arglist; args instanceof Pair && i < this.coercers.length; args = ((Pair) args).getCdr()) {
+            Object coerced = this.coercers[i].coerce(((Pair) args).getCar());
+            if (coerced == failure) {
+                coercible = false;
+            }
+            result[offset + i] = coerced;
+            i++;
+        }
+        return coercible;
+    }
+}
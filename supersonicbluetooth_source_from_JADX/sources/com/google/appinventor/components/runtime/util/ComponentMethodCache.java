@@ -0,0 +1,109 @@
+package com.google.appinventor.components.runtime.util;
+
+import gnu.bytecode.ObjectType;
+import gnu.bytecode.Type;
+import gnu.expr.Compilation;
+import gnu.expr.Language;
+import gnu.kawa.reflect.ClassMethods;
+import gnu.mapping.CallContext;
+import gnu.mapping.MethodProc;
+import gnu.mapping.Symbol;
+import gnu.mapping.WrappedException;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ComponentMethodCache {
+    private static final int MAX_TARGETS = 8;
+    private static final ConcurrentHashMap<Object, CallSite> callSites = new ConcurrentHashMap();
+
+    private static final class Target {
+        final Class<?>[] argumentClasses;
+        final MethodProc method;
+
+        Target(Object[] args, MethodProc method) {
+            this.argumentClasses = new Class[args.length];
+            for (int i = 0; i < args.length; i++) {
+                this.argumentClasses[i] = args[i] == null ? null : args[i].getClass();
+            }
+            this.method = method;
+        }
+
+        boolean matches(Object[] args) {
+            if (this.argumentClasses.length != args.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (this.argumentClasses[i] != (args[i] == null ? null : args[i].getClass())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class CallSite {
+        final String methodName;
+        private volatile Target[] targets = new Target[0];
+
+        CallSite(String methodName) {
+            this.methodName = methodName;
+        }
+
+        Target find(Object[] args) {
+            for (Target target : this.targets) {
+                if (target.matches(args)) {
+                    return target;
+                }
+            }
+            return null;
+        }
+
+        synchronized void add(Target target) {
+            Target[] targets = this.targets;
+            int count = Math.min(targets.length, MAX_TARGETS - 1);
+            Target[] updated = new Target[(count + 1)];
+            updated[0] = target;
+            System.arraycopy(targets, 0, updated, 1, count);
+            this.targets = updated;
+        }
+    }
+
+    private ComponentMethodCache() {
+    }
+
+    public static Object invoke(Object methodName, Object[] args) {
+        Object component = args[0];
+        CallSite site = callSite(methodName);
+        Target target = site.find(args);
+        CallContext ctx = CallContext.getInstance();
+        try {
+            if (target == null || target.method.matchN(args, ctx) != 0) {
+                MethodProc methods = ClassMethods.apply((ObjectType) Type.make(component.getClass()), site.methodName, 'V', Language.getDefaultLanguage());
+                if (methods == null) {
+                    throw new RuntimeException("invoke: no method named `" + site.methodName + "' in class " + component.getClass().getName());
+                }
+                int code = methods.matchN(args, ctx);
+                if (code != 0) {
+                    throw MethodProc.matchFailAsException(code, methods, args);
+                }
+                site.add(new Target(args, (MethodProc) ctx.proc));
+            }
+            return ctx.runUntilValue();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e2) {
+            throw e2;
+        } catch (Throwable e3) {
+            throw new WrappedException(e3);
+        }
+    }
+
+    private static CallSite callSite(Object methodName) {
+        CallSite site = (CallSite) callSites.get(methodName);
+        if (site != null) {
+            return site;
+        }
+        CallSite site2 = new CallSite(Compilation.mangleName(methodName instanceof Symbol ? ((Symbol) methodName).getName() : methodName.toString()));
+        CallSite existing = (CallSite) callSites.putIfAbsent(methodName, site2);
+        return existing == null ? site2 : existing;
+    }
+}
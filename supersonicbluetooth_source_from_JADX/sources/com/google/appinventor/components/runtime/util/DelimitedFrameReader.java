@@ -0,0 +1,159 @@
+package com.google.appinventor.components.runtime.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class DelimitedFrameReader {
+    private byte[] buffer;
+    private int end;
+    private boolean endOfStream;
+    private int scanned;
+    private int start;
+
+    public DelimitedFrameReader(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public int pending() {
+        return this.end - this.start;
+    }
+
+    public boolean isEndOfStream() {
+        return this.endOfStream;
+    }
+
+    public void clear() {
+        this.start = 0;
+        this.end = 0;
+        this.scanned = 0;
+        this.endOfStream = false;
+    }
+
+    public byte[] takePending() {
+        byte[] bytes = copy(pending());
+        clear();
+        return bytes;
+    }
+
+    public void append(byte[] bytes, int off, int len) {
+        if (this.end + len > this.buffer.length) {
+            int pending = pending();
+            byte[] target = this.buffer;
+            if (pending + len > this.buffer.length) {
+                target = new byte[Math.max(this.buffer.length * 2, pending + len)];
+            }
+            System.arraycopy(this.buffer, this.start, target, 0, pending);
+            this.buffer = target;
+            this.scanned -= this.start;
+            this.start = 0;
+            this.end = pending;
+        }
+        System.arraycopy(bytes, off, this.buffer, this.end, len);
+        this.end += len;
+    }
+
+    public int readFully(InputStream in, byte[] dst, int off, int len) throws IOException {
+        this.endOfStream = false;
+        int total = Math.min(len, pending());
+        if (total > 0) {
+            System.arraycopy(this.buffer, this.start, dst, off, total);
+            consume(total);
+        }
+        while (total < len) {
+            int numBytesRead = in.read(dst, off + total, len - total);
+            if (numBytesRead == -1) {
+                this.endOfStream = true;
+                break;
+            }
+            total += numBytesRead;
+        }
+        return total;
+    }
+
+    public byte[] readFrame(InputStream in, byte delimiter) throws IOException {
+        this.endOfStream = false;
+        byte[] frame = nextBufferedFrame(delimiter);
+        while (frame == null) {
+            if (fill(in) == -1) {
+                this.endOfStream = true;
+                frame = copy(pending());
+                consume(frame.length);
+                return frame;
+            }
+            frame = nextBufferedFrame(delimiter);
+        }
+        return frame;
+    }
+
+    public List<byte[]> readFrames(InputStream in, byte delimiter, int maxFrames) throws IOException {
+        List<byte[]> frames = new ArrayList();
+        if (maxFrames <= 0) {
+            return frames;
+        }
+        byte[] frame = readFrame(in, delimiter);
+        if (frame.length > 0) {
+            frames.add(frame);
+        }
+        while (!this.endOfStream && frames.size() < maxFrames) {
+            frame = nextBufferedFrame(delimiter);
+            if (frame != null) {
+                frames.add(frame);
+            } else if (in.available() <= 0 || fill(in) == -1) {
+                break;
+            }
+        }
+        return frames;
+    }
+
+    private byte[] nextBufferedFrame(byte delimiter) {
+        byte[] buffer = this.buffer;
+        int end = this.end;
+        for (int i = Math.max(this.scanned, this.start); i < end; i++) {
+            if (buffer[i] == delimiter) {
+                byte[] frame = copy((i + 1) - this.start);
+                consume(frame.length);
+                return frame;
+            }
+        }
+        this.scanned = end;
+        return null;
+    }
+
+    private int fill(InputStream in) throws IOException {
+        if (this.end == this.buffer.length) {
+            int pending = pending();
+            if (pending * 2 > this.buffer.length) {
+                byte[] larger = new byte[this.buffer.length * 2];
+                System.arraycopy(this.buffer, this.start, larger, 0, pending);
+                this.buffer = larger;
+            } else {
+                System.arraycopy(this.buffer, this.start, this.buffer, 0, pending);
+            }
+            this.scanned -= this.start;
+            this.start = 0;
+            this.end = pending;
+        }
+        int numBytesRead = in.read(this.buffer, this.end, this.buffer.length - this.end);
+        if (numBytesRead > 0) {
+            this.end += numBytesRead;
+        }
+        return numBytesRead;
+    }
+
+    private byte[] copy(int length) {
+        byte[] bytes = new byte[length];
+        System.arraycopy(this.buffer, this.start, bytes, 0, length);
+        return bytes;
+    }
+
+    private void consume(int length) {
+        this.start += length;
+        if (this.start == this.end) {
+            this.start = 0;
+            this.end = 0;
+            this.scanned = 0;
+        }
+    }
+}
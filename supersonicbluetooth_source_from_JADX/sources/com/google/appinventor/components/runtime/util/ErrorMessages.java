@@ -14,17 +14,21 @@ public final class ErrorMessages {
     public static final int ERROR_BAD_VALUE_FOR_VERTICAL_ALIGNMENT = 1402;
     public static final int ERROR_BLUETOOTH_COULD_NOT_DECODE = 510;
     public static final int ERROR_BLUETOOTH_COULD_NOT_DECODE_ELEMENT = 513;
+    public static final int ERROR_BLUETOOTH_COULD_NOT_ENCODE_RECORD = 521;
     public static final int ERROR_BLUETOOTH_COULD_NOT_FIT_ELEMENT_IN_BYTE = 514;
     public static final int ERROR_BLUETOOTH_COULD_NOT_FIT_NUMBER_IN_BYTE = 511;
     public static final int ERROR_BLUETOOTH_COULD_NOT_FIT_NUMBER_IN_BYTES = 512;
     public static final int ERROR_BLUETOOTH_END_OF_STREAM = 518;
     public static final int ERROR_BLUETOOTH_INVALID_ADDRESS = 503;
+    public static final int ERROR_BLUETOOTH_INVALID_RECORD_FORMAT = 520;
     public static final int ERROR_BLUETOOTH_INVALID_UUID = 506;
     public static final int ERROR_BLUETOOTH_NOT_AVAILABLE = 501;
     public static final int ERROR_BLUETOOTH_NOT_CONNECTED_TO_DEVICE = 515;
     public static final int ERROR_BLUETOOTH_NOT_ENABLED = 502;
     public static final int ERROR_BLUETOOTH_NOT_PAIRED_DEVICE = 504;
     public static final int ERROR_BLUETOOTH_NOT_REQUIRED_CLASS_OF_DEVICE = 505;
+    public static final int ERROR_BLUETOOTH_RECEIVE_IN_USE = 523;
+    public static final int ERROR_BLUETOOTH_RECEIVING_WHILE_STREAMING = 522;
     public static final int ERROR_BLUETOOTH_UNABLE_TO_ACCEPT = 509;
     public static final int ERROR_BLUETOOTH_UNABLE_TO_CONNECT = 507;
     public static final int ERROR_BLUETOOTH_UNABLE_TO_LISTEN = 508;
@@ -250,6 +254,10 @@ public final class ErrorMessages {
         errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_UNABLE_TO_READ), "Unable to read: %s");
         errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_END_OF_STREAM), "End of stream has been reached.");
         errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_UNSUPPORTED_ENCODING), "The encoding %s is not supported.");
+        errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_INVALID_RECORD_FORMAT), "The record format \"%s\" is not valid.");
+        errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_COULD_NOT_ENCODE_RECORD), "Could not encode the record: %s");
+        errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_RECEIVING_WHILE_STREAMING), "Received data is delivered by the DataReceived event while Streaming is enabled.");
+        errorMessages.put(Integer.valueOf(ERROR_BLUETOOTH_RECEIVE_IN_USE), "Received data is being read by another component.");
         errorMessages.put(Integer.valueOf(ERROR_ACTIVITY_STARTER_NO_CORRESPONDING_ACTIVITY), "No corresponding activity was found.");
         errorMessages.put(Integer.valueOf(ERROR_ACTIVITY_STARTER_NO_ACTION_INFO), "No Action information in ActivityStarter was found.");
         errorMessages.put(Integer.valueOf(ERROR_UNABLE_TO_LOAD_MEDIA), "Unable to load %s.");
@@ -5,7 +5,9 @@ import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 public class Ev3BinaryParser {
     private static byte PRIMPAR_1_BYTE = (byte) 1;
@@ -26,476 +28,500 @@ public class Ev3BinaryParser {
     private static byte PRIMPAR_VALUE = Opcode.MOVEF_F;
     private static byte PRIMPAR_VARIABEL = Opcode.JR;
 
-    private static class FormatLiteral {
-        public int size;
-        public char symbol;
+    public static final class Format {
+        private static final Map<String, Format> cache = new HashMap();
+        private final int[] counts;
+        private final String format;
+        private final int size;
+        private final int[] valueOffsets;
+        private final char[] valueSymbols;
+        private final char[] symbols;
 
-        public FormatLiteral(char symbol, int size) {
-            this.symbol = symbol;
-            this.size = size;
+        private Format(String format, char[] symbols, int[] counts) {
+            this.format = format;
+            this.symbols = symbols;
+            this.counts = counts;
+            int values = 0;
+            for (int i = 0; i < symbols.length; i++) {
+                if (Character.isLowerCase(symbols[i]) && symbols[i] != 's') {
+                    if (symbols[i] != 'x') {
+                        values += counts[i];
+                    }
+                } else if (symbols[i] != '$') {
+                    values++;
+                }
+            }
+            this.valueSymbols = new char[values];
+            this.valueOffsets = new int[values];
+            int index = 0;
+            int offset = 0;
+            for (int i2 = 0; i2 < symbols.length; i2++) {
+                char symbol = symbols[i2];
+                int count = counts[i2];
+                if (symbol == 'S') {
+                    this.valueSymbols[index] = symbol;
+                    this.valueOffsets[index] = offset;
+                    index++;
+                    offset = -1;
+                } else if (symbol != '$') {
+                    int width = width(symbol);
+                    if (symbol == 'x') {
+                        offset = advance(offset, width * count);
+                    } else if (Character.isUpperCase(symbol) || symbol == 's') {
+                        this.valueSymbols[index] = symbol;
+                        this.valueOffsets[index] = offset;
+                        index++;
+                        offset = advance(offset, width * count);
+                    } else {
+                        for (int j = 0; j < count; j++) {
+                            this.valueSymbols[index] = symbol;
+                            this.valueOffsets[index] = offset;
+                            index++;
+                            offset = advance(offset, width);
+                        }
+                    }
+                }
+            }
+            this.size = offset;
         }
-    }
 
-    public static byte[] pack(String format, Object... values) throws IllegalArgumentException {
-        int i;
-        String[] formatTokens = format.split("(?<=\\D)");
-        FormatLiteral[] literals = new FormatLiteral[formatTokens.length];
-        int index = 0;
-        int bufferCapacity = 0;
-        for (i = 0; i < formatTokens.length; i++) {
-            String token = formatTokens[i];
-            char symbol = token.charAt(token.length() - 1);
-            int size = 1;
-            boolean sizeSpecified = false;
-            if (token.length() != 1) {
-                size = Integer.parseInt(token.substring(0, token.length() - 1));
-                sizeSpecified = true;
-                if (size < 1) {
-                    throw new IllegalArgumentException("Illegal format string");
+        public static Format compile(String format) throws IllegalArgumentException {
+            Format compiled;
+            synchronized (cache) {
+                compiled = (Format) cache.get(format);
+            }
+            if (compiled == null) {
+                compiled = parse(format);
+                synchronized (cache) {
+                    cache.put(format, compiled);
                 }
             }
+            return compiled;
+        }
+
+        private static Format parse(String format) throws IllegalArgumentException {
+            char[] symbols = new char[format.length()];
+            int[] counts = new int[format.length()];
+            int tokens = 0;
+            int count = -1;
+            for (int i = 0; i < format.length(); i++) {
+                char symbol = format.charAt(i);
+                if (symbol < '0' || symbol > '9') {
+                    if (width(symbol) < 0 || count == 0 || (count != -1 && (symbol == 'S' || symbol == '$'))) {
+                        throw new IllegalArgumentException("Illegal format string");
+                    }
+                    symbols[tokens] = symbol;
+                    counts[tokens] = count == -1 ? 1 : count;
+                    tokens++;
+                    count = -1;
+                } else {
+                    count = (count == -1 ? 0 : count * 10) + (symbol - 48);
+                }
+            }
+            if (count != -1) {
+                throw new IllegalArgumentException("Illegal format string");
+            }
+            char[] compactSymbols = new char[tokens];
+            int[] compactCounts = new int[tokens];
+            System.arraycopy(symbols, 0, compactSymbols, 0, tokens);
+            System.arraycopy(counts, 0, compactCounts, 0, tokens);
+            return new Format(format, compactSymbols, compactCounts);
+        }
+
+        private static int width(char symbol) {
             switch (symbol) {
+                case '$':
+                case 'S':
+                    return 0;
                 case 'B':
-                    bufferCapacity += size;
-                    index++;
-                    break;
-                case 'F':
-                    bufferCapacity += size * 4;
-                    index++;
-                    break;
+                case 'b':
+                case 's':
+                case 'x':
+                    return 1;
                 case 'H':
-                    bufferCapacity += size * 2;
-                    index++;
-                    break;
+                case 'h':
+                    return 2;
+                case 'F':
                 case 'I':
-                    bufferCapacity += size * 4;
-                    index++;
-                    break;
-                case 'L':
-                    bufferCapacity += size * 8;
-                    index++;
-                    break;
-                case 'S':
-                    if (!sizeSpecified) {
-                        bufferCapacity += ((String) values[index]).length() + 1;
-                        index++;
-                        break;
-                    }
-                    throw new IllegalArgumentException("Illegal format string");
-                case 'b':
-                    bufferCapacity += size;
-                    index += size;
-                    break;
                 case 'f':
-                    bufferCapacity += size * 4;
-                    index += size;
-                    break;
-                case 'h':
-                    bufferCapacity += size * 2;
-                    index += size;
-                    break;
                 case 'i':
-                    bufferCapacity += size * 4;
-                    index += size;
-                    break;
+                    return 4;
+                case 'L':
                 case 'l':
-                    bufferCapacity += size * 8;
-                    index += size;
-                    break;
-                case 's':
-                    if (size == ((String) values[index]).length()) {
-                        bufferCapacity += size;
-                        index++;
-                        break;
-                    }
-                    throw new IllegalArgumentException("Illegal format string");
-                case 'x':
-                    bufferCapacity += size;
-                    break;
+                    return 8;
                 default:
-                    throw new IllegalArgumentException("Illegal format string");
+                    return -1;
             }
-            literals[i] = new FormatLiteral(symbol, size);
         }
-        if (index != values.length) {
-            throw new IllegalArgumentException("Illegal format string");
+
+        private static int advance(int offset, int length) {
+            return offset < 0 ? -1 : offset + length;
         }
-        index = 0;
-        ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (FormatLiteral literal : literals) {
-            switch (literal.symbol) {
-                case 'B':
-                    buffer.put((byte[]) values[index]);
-                    index++;
-                    break;
-                case 'F':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putFloat(((float[]) values[index])[i]);
-                    }
-                    index++;
-                    break;
-                case 'H':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putShort(((short[]) values[index])[i]);
-                    }
-                    index++;
-                    break;
-                case 'I':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putInt(((int[]) values[index])[i]);
-                    }
-                    index++;
-                    break;
-                case 'L':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putLong(((long[]) values[index])[i]);
-                    }
+
+        public String getFormat() {
+            return this.format;
+        }
+
+        public int size() {
+            return this.size;
+        }
+
+        public int valueCount() {
+            return this.valueSymbols.length;
+        }
+
+        public int offsetOf(int index) {
+            int offset = this.valueOffsets[index];
+            if (offset >= 0) {
+                return offset;
+            }
+            throw new IllegalArgumentException("Value " + index + " does not have a fixed offset");
+        }
+
+        private int position(int offset, int index, char symbol) {
+            if (this.valueSymbols[index] == symbol) {
+                return offsetOf(index) + offset;
+            }
+            throw new IllegalArgumentException("Value " + index + " is not of type '" + symbol + "'");
+        }
+
+        public void putByte(ByteBuffer buffer, int offset, int index, byte value) {
+            buffer.put(position(offset, index, 'b'), value);
+        }
+
+        public void putShort(ByteBuffer buffer, int offset, int index, short value) {
+            putLittleEndian(buffer, position(offset, index, 'h'), (long) value, 2);
+        }
+
+        public void putInt(ByteBuffer buffer, int offset, int index, int value) {
+            putLittleEndian(buffer, position(offset, index, 'i'), (long) value, 4);
+        }
+
+        public void putLong(ByteBuffer buffer, int offset, int index, long value) {
+            putLittleEndian(buffer, position(offset, index, 'l'), value, 8);
+        }
+
+        public void putFloat(ByteBuffer buffer, int offset, int index, float value) {
+            putLittleEndian(buffer, position(offset, index, 'f'), (long) Float.floatToRawIntBits(value), 4);
+        }
+
+        public byte getByte(ByteBuffer buffer, int offset, int index) {
+            return buffer.get(position(offset, index, 'b'));
+        }
+
+        public short getShort(ByteBuffer buffer, int offset, int index) {
+            return (short) ((int) getLittleEndian(buffer, position(offset, index, 'h'), 2));
+        }
+
+        public int getInt(ByteBuffer buffer, int offset, int index) {
+            return (int) getLittleEndian(buffer, position(offset, index, 'i'), 4);
+        }
+
+        public long getLong(ByteBuffer buffer, int offset, int index) {
+            return getLittleEndian(buffer, position(offset, index, 'l'), 8);
+        }
+
+        public float getFloat(ByteBuffer buffer, int offset, int index) {
+            return Float.intBitsToFloat((int) getLittleEndian(buffer, position(offset, index, 'f'), 4));
+        }
+
+        private static void putLittleEndian(ByteBuffer buffer, int position, long value, int width) {
+            for (int i = 0; i < width; i++) {
+                buffer.put(position + i, (byte) ((int) (value >>> (i * 8))));
+            }
+        }
+
+        private static long getLittleEndian(ByteBuffer buffer, int position, int width) {
+            long value = 0;
+            for (int i = 0; i < width; i++) {
+                value |= (((long) buffer.get(position + i)) & 255) << (i * 8);
+            }
+            if (width < 8) {
+                return (value << (64 - (width * 8))) >> (64 - (width * 8));
+            }
+            return value;
+        }
+
+        public int packedSize(Object... values) throws IllegalArgumentException {
+            if (values.length != this.valueSymbols.length) {
+                throw new IllegalArgumentException("Illegal format string");
+            }
+            if (this.size >= 0) {
+                return this.size;
+            }
+            int length = 0;
+            int index = 0;
+            for (int i = 0; i < this.symbols.length; i++) {
+                char symbol = this.symbols[i];
+                if (symbol == 'S') {
+                    length += ((String) values[index]).length() + 1;
                     index++;
-                    break;
-                case 'S':
-                    try {
-                        buffer.put(((String) values[index]).getBytes("US-ASCII"));
-                        buffer.put((byte) 0);
-                        index++;
-                        break;
-                    } catch (UnsupportedEncodingException e) {
-                        throw new IllegalArgumentException();
-                    }
-                case 'b':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.put(((Byte) values[index]).byteValue());
+                } else if (symbol != '$') {
+                    length += width(symbol) * this.counts[i];
+                    if (Character.isUpperCase(symbol) || symbol == 's') {
                         index++;
+                    } else if (symbol != 'x') {
+                        index += this.counts[i];
                     }
-                    break;
-                case 'f':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putFloat(((Float) values[index]).floatValue());
-                        index++;
-                    }
-                    break;
-                case 'h':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putShort(((Short) values[index]).shortValue());
+                }
+            }
+            return length;
+        }
+
+        public byte[] pack(Object... values) throws IllegalArgumentException {
+            ByteBuffer buffer = ByteBuffer.allocate(packedSize(values));
+            pack(buffer, 0, values);
+            return buffer.array();
+        }
+
+        public int pack(ByteBuffer buffer, int offset, Object... values) throws IllegalArgumentException {
+            int length = packedSize(values);
+            if (offset < 0 || offset + length > buffer.limit()) {
+                throw new IllegalArgumentException("Buffer is too small");
+            }
+            int position = offset;
+            int index = 0;
+            for (int i = 0; i < this.symbols.length; i++) {
+                char symbol = this.symbols[i];
+                int count = this.counts[i];
+                int j;
+                switch (symbol) {
+                    case 'B':
+                        byte[] bytes = (byte[]) values[index];
+                        if (bytes.length <= count) {
+                            for (j = 0; j < count; j++) {
+                                buffer.put(position + j, j < bytes.length ? bytes[j] : (byte) 0);
+                            }
+                            position += count;
+                            index++;
+                            break;
+                        }
+                        throw new IllegalArgumentException("Illegal format string");
+                    case 'F':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) Float.floatToRawIntBits(((float[]) values[index])[j]), 4);
+                            position += 4;
+                        }
                         index++;
-                    }
-                    break;
-                case 'i':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putInt(((Integer) values[index]).intValue());
+                        break;
+                    case 'H':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) ((short[]) values[index])[j], 2);
+                            position += 2;
+                        }
                         index++;
-                    }
-                    break;
-                case 'l':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.putLong(((Long) values[index]).longValue());
+                        break;
+                    case 'I':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) ((int[]) values[index])[j], 4);
+                            position += 4;
+                        }
                         index++;
-                    }
-                    break;
-                case 's':
-                    try {
-                        buffer.put(((String) values[index]).getBytes("US-ASCII"));
+                        break;
+                    case 'L':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, ((long[]) values[index])[j], 8);
+                            position += 8;
+                        }
                         index++;
                         break;
-                    } catch (UnsupportedEncodingException e2) {
-                        throw new IllegalArgumentException();
+                    case 'S':
+                    case 's':
+                        String text = (String) values[index];
+                        if (symbol != 's' || text.length() == count) {
+                            for (j = 0; j < text.length(); j++) {
+                                char c = text.charAt(j);
+                                if (c > '\u007f') {
+                                    throw new IllegalArgumentException();
+                                }
+                                buffer.put(position, (byte) c);
+                                position++;
+                            }
+                            if (symbol == 'S') {
+                                buffer.put(position, (byte) 0);
+                                position++;
+                            }
+                            index++;
+                            break;
+                        }
+                        throw new IllegalArgumentException("Illegal format string");
+                    case 'b':
+                        for (j = 0; j < count; j++) {
+                            buffer.put(position, ((Byte) values[index]).byteValue());
+                            position++;
+                            index++;
+                        }
+                        break;
+                    case 'f':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) Float.floatToRawIntBits(((Float) values[index]).floatValue()), 4);
+                            position += 4;
+                            index++;
+                        }
+                        break;
+                    case 'h':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) ((Short) values[index]).shortValue(), 2);
+                            position += 2;
+                            index++;
+                        }
+                        break;
+                    case 'i':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, (long) ((Integer) values[index]).intValue(), 4);
+                            position += 4;
+                            index++;
+                        }
+                        break;
+                    case 'l':
+                        for (j = 0; j < count; j++) {
+                            putLittleEndian(buffer, position, ((Long) values[index]).longValue(), 8);
+                            position += 8;
+                            index++;
+                        }
+                        break;
+                    case 'x':
+                        for (j = 0; j < count; j++) {
+                            buffer.put(position, (byte) 0);
+                            position++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return length;
+        }
+
+        public Object[] unpack(byte[] bytes) throws IllegalArgumentException {
+            return unpack(ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+
+        public Object[] unpack(ByteBuffer buffer, int offset, int length) throws IllegalArgumentException {
+            Object[] values = new Object[this.valueSymbols.length];
+            int end = offset + length;
+            int position = offset;
+            int index = 0;
+            for (int i = 0; i < this.symbols.length; i++) {
+                char symbol = this.symbols[i];
+                int count = this.counts[i];
+                int j;
+                if (symbol == 'S') {
+                    StringBuffer text = new StringBuffer();
+                    while (true) {
+                        if (position >= end) {
+                            throw new IllegalArgumentException("Buffer is too short");
+                        }
+                        byte b = buffer.get(position);
+                        position++;
+                        if (b == (byte) 0) {
+                            break;
+                        }
+                        text.append((char) b);
                     }
-                case 'x':
-                    for (i = 0; i < literal.size; i++) {
-                        buffer.put((byte) 0);
+                    values[index] = text.toString();
+                    index++;
+                } else if (symbol != '$') {
+                    if (position + (width(symbol) * count) > end) {
+                        throw new IllegalArgumentException("Buffer is too short");
                     }
-                    break;
-                default:
-                    break;
+                    switch (symbol) {
+                        case 'B':
+                            byte[] bytes = new byte[count];
+                            for (j = 0; j < count; j++) {
+                                bytes[j] = buffer.get(position + j);
+                            }
+                            values[index] = bytes;
+                            index++;
+                            break;
+                        case 'F':
+                            float[] floats = new float[count];
+                            for (j = 0; j < count; j++) {
+                                floats[j] = Float.intBitsToFloat((int) getLittleEndian(buffer, (j * 4) + position, 4));
+                            }
+                            values[index] = floats;
+                            index++;
+                            break;
+                        case 'H':
+                            short[] shorts = new short[count];
+                            for (j = 0; j < count; j++) {
+                                shorts[j] = (short) ((int) getLittleEndian(buffer, (j * 2) + position, 2));
+                            }
+                            values[index] = shorts;
+                            index++;
+                            break;
+                        case 'I':
+                            int[] ints = new int[count];
+                            for (j = 0; j < count; j++) {
+                                ints[j] = (int) getLittleEndian(buffer, (j * 4) + position, 4);
+                            }
+                            values[index] = ints;
+                            index++;
+                            break;
+                        case 'L':
+                            long[] longs = new long[count];
+                            for (j = 0; j < count; j++) {
+                                longs[j] = getLittleEndian(buffer, (j * 8) + position, 8);
+                            }
+                            values[index] = longs;
+                            index++;
+                            break;
+                        case 'b':
+                            for (j = 0; j < count; j++) {
+                                values[index] = Byte.valueOf(buffer.get(position + j));
+                                index++;
+                            }
+                            break;
+                        case 'f':
+                            for (j = 0; j < count; j++) {
+                                values[index] = Float.valueOf(Float.intBitsToFloat((int) getLittleEndian(buffer, (j * 4) + position, 4)));
+                                index++;
+                            }
+                            break;
+                        case 'h':
+                            for (j = 0; j < count; j++) {
+                                values[index] = Short.valueOf((short) ((int) getLittleEndian(buffer, (j * 2) + position, 2)));
+                                index++;
+                            }
+                            break;
+                        case 'i':
+                            for (j = 0; j < count; j++) {
+                                values[index] = Integer.valueOf((int) getLittleEndian(buffer, (j * 4) + position, 4));
+                                index++;
+                            }
+                            break;
+                        case 'l':
+                            for (j = 0; j < count; j++) {
+                                values[index] = Long.valueOf(getLittleEndian(buffer, (j * 8) + position, 8));
+                                index++;
+                            }
+                            break;
+                        case 's':
+                            char[] chars = new char[count];
+                            for (j = 0; j < count; j++) {
+                                chars[j] = (char) (buffer.get(position + j) & 255);
+                            }
+                            values[index] = new String(chars);
+                            index++;
+                            break;
+                        default:
+                            break;
+                    }
+                    position += width(symbol) * count;
+                } else if (position != end) {
+                    throw new IllegalArgumentException("Illegal format string");
+                }
             }
+            return values;
         }
-        return buffer.array();
     }
 
-    /* JADX WARNING: inconsistent code. */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
-    public static java.lang.Object[] unpack(java.lang.String r26, byte[] r27) throws java.lang.IllegalArgumentException {
-        /*
-        r21 = "(?<=\\D)";
-        r0 = r26;
-        r1 = r21;
-        r11 = r0.split(r1);
-        r8 = new java.util.ArrayList;
-        r8.<init>();
-        r5 = java.nio.ByteBuffer.wrap(r27);
-        r21 = java.nio.ByteOrder.LITTLE_ENDIAN;
-        r0 = r21;
-        r5.order(r0);
-        r0 = r11.length;
-        r22 = r0;
-        r21 = 0;
-    L_0x001f:
-        r0 = r21;
-        r1 = r22;
-        if (r0 >= r1) goto L_0x01c6;
-    L_0x0025:
-        r20 = r11[r21];
-        r17 = 0;
-        r16 = 1;
-        r23 = r20.length();
-        r23 = r23 + -1;
-        r0 = r20;
-        r1 = r23;
-        r19 = r0.charAt(r1);
-        r23 = r20.length();
-        r24 = 1;
-        r0 = r23;
-        r1 = r24;
-        if (r0 <= r1) goto L_0x006d;
-    L_0x0045:
-        r17 = 1;
-        r23 = 0;
-        r24 = r20.length();
-        r24 = r24 + -1;
-        r0 = r20;
-        r1 = r23;
-        r2 = r24;
-        r23 = r0.substring(r1, r2);
-        r16 = java.lang.Integer.parseInt(r23);
-        r23 = 1;
-        r0 = r16;
-        r1 = r23;
-        if (r0 >= r1) goto L_0x006d;
-    L_0x0065:
-        r21 = new java.lang.IllegalArgumentException;
-        r22 = "Illegal format string";
-        r21.<init>(r22);
-        throw r21;
-    L_0x006d:
-        switch(r19) {
-            case 36: goto L_0x01ae;
-            case 66: goto L_0x0098;
-            case 70: goto L_0x0146;
-            case 72: goto L_0x00c1;
-            case 73: goto L_0x00ef;
-            case 76: goto L_0x011a;
-            case 83: goto L_0x0183;
-            case 98: goto L_0x0083;
-            case 102: goto L_0x0131;
-            case 104: goto L_0x00ac;
-            case 105: goto L_0x00da;
-            case 108: goto L_0x0105;
-            case 115: goto L_0x015d;
-            case 120: goto L_0x0078;
-            default: goto L_0x0070;
-        };
-    L_0x0070:
-        r21 = new java.lang.IllegalArgumentException;
-        r22 = "Illegal format string";
-        r21.<init>(r22);
-        throw r21;
-    L_0x0078:
-        r12 = 0;
-    L_0x0079:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x007d:
-        r5.get();
-        r12 = r12 + 1;
-        goto L_0x0079;
-    L_0x0083:
-        r12 = 0;
-    L_0x0084:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x0088:
-        r23 = r5.get();
-        r23 = java.lang.Byte.valueOf(r23);
-        r0 = r23;
-        r8.add(r0);
-        r12 = r12 + 1;
-        goto L_0x0084;
-    L_0x0098:
-        r0 = r16;
-        r6 = new byte[r0];
-        r23 = 0;
-        r0 = r23;
-        r1 = r16;
-        r5.get(r6, r0, r1);
-        r8.add(r6);
-    L_0x00a8:
-        r21 = r21 + 1;
-        goto L_0x001f;
-    L_0x00ac:
-        r12 = 0;
-    L_0x00ad:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x00b1:
-        r23 = r5.getShort();
-        r23 = java.lang.Short.valueOf(r23);
-        r0 = r23;
-        r8.add(r0);
-        r12 = r12 + 1;
-        goto L_0x00ad;
-    L_0x00c1:
-        r0 = r16;
-        r15 = new short[r0];
-        r12 = 0;
-    L_0x00c6:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00d6;
-    L_0x00ca:
-        r23 = r5.getShort();
-        r15[r12] = r23;
-        r23 = r12 + 1;
-        r0 = r23;
-        r12 = (short) r0;
-        goto L_0x00c6;
-    L_0x00d6:
-        r8.add(r15);
-        goto L_0x00a8;
-    L_0x00da:
-        r12 = 0;
-    L_0x00db:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x00df:
-        r23 = r5.getInt();
-        r23 = java.lang.Integer.valueOf(r23);
-        r0 = r23;
-        r8.add(r0);
-        r12 = r12 + 1;
-        goto L_0x00db;
-    L_0x00ef:
-        r0 = r16;
-        r13 = new int[r0];
-        r12 = 0;
-    L_0x00f4:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x0101;
-    L_0x00f8:
-        r23 = r5.getInt();
-        r13[r12] = r23;
-        r12 = r12 + 1;
-        goto L_0x00f4;
-    L_0x0101:
-        r8.add(r13);
-        goto L_0x00a8;
-    L_0x0105:
-        r12 = 0;
-    L_0x0106:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x010a:
-        r24 = r5.getLong();
-        r23 = java.lang.Long.valueOf(r24);
-        r0 = r23;
-        r8.add(r0);
-        r12 = r12 + 1;
-        goto L_0x0106;
-    L_0x011a:
-        r0 = r16;
-        r14 = new long[r0];
-        r12 = 0;
-    L_0x011f:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x012c;
-    L_0x0123:
-        r24 = r5.getLong();
-        r14[r12] = r24;
-        r12 = r12 + 1;
-        goto L_0x011f;
-    L_0x012c:
-        r8.add(r14);
-        goto L_0x00a8;
-    L_0x0131:
-        r12 = 0;
-    L_0x0132:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x00a8;
-    L_0x0136:
-        r23 = r5.getFloat();
-        r23 = java.lang.Float.valueOf(r23);
-        r0 = r23;
-        r8.add(r0);
-        r12 = r12 + 1;
-        goto L_0x0132;
-    L_0x0146:
-        r0 = r16;
-        r10 = new float[r0];
-        r12 = 0;
-    L_0x014b:
-        r0 = r16;
-        if (r12 >= r0) goto L_0x0158;
-    L_0x014f:
-        r23 = r5.getFloat();
-        r10[r12] = r23;
-        r12 = r12 + 1;
-        goto L_0x014b;
-    L_0x0158:
-        r8.add(r10);
-        goto L_0x00a8;
-    L_0x015d:
-        r0 = r16;
-        r7 = new byte[r0];
-        r23 = 0;
-        r0 = r23;
-        r1 = r16;
-        r5.get(r7, r0, r1);
-        r23 = new java.lang.String;	 Catch:{ UnsupportedEncodingException -> 0x017c }
-        r24 = "US-ASCII";
-        r0 = r23;
-        r1 = r24;
-        r0.<init>(r7, r1);	 Catch:{ UnsupportedEncodingException -> 0x017c }
-        r0 = r23;
-        r8.add(r0);	 Catch:{ UnsupportedEncodingException -> 0x017c }
-        goto L_0x00a8;
-    L_0x017c:
-        r9 = move-exception;
-        r21 = new java.lang.IllegalArgumentException;
-        r21.<init>();
-        throw r21;
-    L_0x0183:
-        if (r17 == 0) goto L_0x018d;
-    L_0x0185:
-        r21 = new java.lang.IllegalArgumentException;
-        r22 = "Illegal format string";
-        r21.<init>(r22);
-        throw r21;
-    L_0x018d:
-        r18 = new java.lang.StringBuffer;
-        r18.<init>();
-    L_0x0192:
-        r4 = r5.get();
-        if (r4 == 0) goto L_0x01a3;
-    L_0x0198:
-        r0 = (char) r4;
-        r23 = r0;
-        r0 = r18;
-        r1 = r23;
-        r0.append(r1);
-        goto L_0x0192;
-    L_0x01a3:
-        r23 = r18.toString();
-        r0 = r23;
-        r8.add(r0);
-        goto L_0x00a8;
-    L_0x01ae:
-        if (r17 == 0) goto L_0x01b8;
-    L_0x01b0:
-        r21 = new java.lang.IllegalArgumentException;
-        r22 = "Illegal format string";
-        r21.<init>(r22);
-        throw r21;
-    L_0x01b8:
-        r21 = r5.hasRemaining();
-        if (r21 == 0) goto L_0x0070;
-    L_0x01be:
-        r21 = new java.lang.IllegalArgumentException;
-        r22 = "Illegal format string";
-        r21.<init>(r22);
-        throw r21;
-    L_0x01c6:
-        r21 = r8.toArray();
-        return r21;
-        */
-        throw new UnsupportedOperationException("Method not decompiled: com.google.appinventor.components.runtime.util.Ev3BinaryParser.unpack(java.lang.String, byte[]):java.lang.Object[]");
+    public static byte[] pack(String format, Object... values) throws IllegalArgumentException {
+        return Format.compile(format).pack(values);
+    }
+
+    public static Object[] unpack(String format, byte[] values) throws IllegalArgumentException {
+        return Format.compile(format).unpack(values);
     }
 
     public static byte[] encodeLC0(byte v) {
@@ -590,7 +616,29 @@ public class Ev3BinaryParser {
     }
 
     public static byte[] encodeDirectCommand(byte opcode, boolean needReply, int globalAllocation, int localAllocation, String paramFormat, Object... parameters) {
-        if (globalAllocation < 0 || globalAllocation > 1023 || localAllocation < 0 || localAllocation > 63 || paramFormat.length() != parameters.length) {
+        return encodeDirectCommand(needReply, globalAllocation, localAllocation, encodeInstruction(opcode, paramFormat, parameters));
+    }
+
+    public static byte[] encodeDirectCommand(boolean needReply, int globalAllocation, int localAllocation, byte[]... instructions) {
+        if (globalAllocation < 0 || globalAllocation > 1023 || localAllocation < 0 || localAllocation > 63) {
+            throw new IllegalArgumentException();
+        }
+        int bufferCapacity = 3;
+        for (byte[] instruction : instructions) {
+            bufferCapacity += instruction.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(needReply ? (byte) 0 : Byte.MIN_VALUE);
+        buffer.put(new byte[]{(byte) (globalAllocation & 255), (byte) (((globalAllocation >>> 8) & 3) | (localAllocation << 2))});
+        for (byte[] instruction : instructions) {
+            buffer.put(instruction);
+        }
+        return buffer.array();
+    }
+
+    public static byte[] encodeInstruction(byte opcode, String paramFormat, Object... parameters) {
+        if (paramFormat.length() != parameters.length) {
             throw new IllegalArgumentException();
         }
         ArrayList<byte[]> payloads = new ArrayList();
@@ -663,15 +711,13 @@ public class Ev3BinaryParser {
                     throw new IllegalArgumentException("Illegal format string");
             }
         }
-        int bufferCapacity = 4;
+        int bufferCapacity = 1;
         Iterator it = payloads.iterator();
         while (it.hasNext()) {
             bufferCapacity += ((byte[]) it.next()).length;
         }
         ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
-        buffer.put(needReply ? (byte) 0 : Byte.MIN_VALUE);
-        buffer.put(new byte[]{(byte) (globalAllocation & 255), (byte) (((globalAllocation >>> 8) & 3) | (localAllocation << 2))});
         buffer.put(opcode);
         it = payloads.iterator();
         while (it.hasNext()) {
@@ -0,0 +1,92 @@
+package com.google.appinventor.components.runtime.util;
+
+import gnu.math.DFloNum;
+import gnu.math.IntNum;
+
+public final class FixnumArithmetic {
+    private static final double MAX_LONG = 9.223372036854776E18d;
+    public static final int UNORDERED = 2;
+
+    private FixnumArithmetic() {
+    }
+
+    public static boolean isFixnum(Object x) {
+        return (x instanceof IntNum) && ((IntNum) x).words == null;
+    }
+
+    public static boolean isFastNumber(Object x) {
+        return isFixnum(x) || (x instanceof DFloNum);
+    }
+
+    public static Object add(Object x, Object y) {
+        if (isFixnum(x) && isFixnum(y)) {
+            return IntNum.make(((long) ((IntNum) x).ival) + ((long) ((IntNum) y).ival));
+        }
+        if (isFastNumber(x) && isFastNumber(y)) {
+            return DFloNum.make(((Number) x).doubleValue() + ((Number) y).doubleValue());
+        }
+        return null;
+    }
+
+    public static Object divideInexact(Object x, Object y) {
+        if (!isFastNumber(x) || !isFastNumber(y)) {
+            return null;
+        }
+        double divisor = ((Number) y).doubleValue();
+        if (divisor == 0.0d) {
+            return null;
+        }
+        return DFloNum.make(((Number) x).doubleValue() / divisor);
+    }
+
+    public static int compare(Object x, Object y) {
+        if (isFixnum(x) && isFixnum(y)) {
+            int a = ((IntNum) x).ival;
+            int b = ((IntNum) y).ival;
+            if (a < b) {
+                return -1;
+            }
+            return a > b ? 1 : 0;
+        } else if (!isFastNumber(x) || !isFastNumber(y)) {
+            return UNORDERED;
+        } else {
+            double a2 = ((Number) x).doubleValue();
+            double b2 = ((Number) y).doubleValue();
+            if (a2 < b2) {
+                return -1;
+            }
+            if (a2 > b2) {
+                return 1;
+            }
+            return a2 == b2 ? 0 : UNORDERED;
+        }
+    }
+
+    public static IntNum floor(Object x) {
+        if (isFixnum(x)) {
+            return (IntNum) x;
+        }
+        return x instanceof DFloNum ? toFixnum(Math.floor(((DFloNum) x).doubleValue())) : null;
+    }
+
+    public static IntNum ceiling(Object x) {
+        if (isFixnum(x)) {
+            return (IntNum) x;
+        }
+        return x instanceof DFloNum ? toFixnum(Math.ceil(((DFloNum) x).doubleValue())) : null;
+    }
+
+    public static IntNum round(Object x) {
+        if (isFixnum(x)) {
+            return (IntNum) x;
+        }
+        return x instanceof DFloNum ? toFixnum(Math.rint(((DFloNum) x).doubleValue())) : null;
+    }
+
+    private static IntNum toFixnum(double value) {
+        if (value < (-MAX_LONG) || value >= MAX_LONG || Double.isNaN(value)) {
+            return null;
+        }
+        return IntNum.make((long) value);
+    }
+}
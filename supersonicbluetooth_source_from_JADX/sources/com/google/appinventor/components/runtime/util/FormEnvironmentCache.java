@@ -0,0 +1,66 @@
+package com.google.appinventor.components.runtime.util;
+
+import gnu.mapping.Environment;
+import gnu.mapping.Location;
+import gnu.mapping.Symbol;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class FormEnvironmentCache {
+    private static volatile Binding binding;
+
+    private static final class Binding {
+        final Environment environment;
+        final Object form;
+        final ConcurrentHashMap<Symbol, Location> locations = new ConcurrentHashMap();
+
+        Binding(Object form, Environment environment) {
+            this.form = form;
+            this.environment = environment;
+        }
+    }
+
+    private FormEnvironmentCache() {
+    }
+
+    public static Environment environment(Object form) {
+        Binding binding2 = binding;
+        if (binding2 == null || binding2.form != form || form == null) {
+            return null;
+        }
+        return binding2.environment;
+    }
+
+    public static void bind(Object form, Environment environment) {
+        binding = new Binding(form, environment);
+    }
+
+    public static Object lookup(Environment environment, Symbol name, Object defaultValue) {
+        Binding binding2 = binding;
+        if (binding2 == null || binding2.environment != environment) {
+            binding2 = new Binding(null, environment);
+            binding = binding2;
+        }
+        Location location = (Location) binding2.locations.get(name);
+        if (location == null) {
+            location = environment.lookup(name);
+            if (location == null) {
+                return defaultValue;
+            }
+            binding2.locations.put(name, location);
+        }
+        String unbound = Location.UNBOUND;
+        Object value = location.get(unbound);
+        return value == unbound ? defaultValue : value;
+    }
+
+    public static void invalidate(Symbol name) {
+        Binding binding2 = binding;
+        if (binding2 != null) {
+            binding2.locations.remove(name);
+        }
+    }
+
+    public static void clear() {
+        binding = null;
+    }
+}
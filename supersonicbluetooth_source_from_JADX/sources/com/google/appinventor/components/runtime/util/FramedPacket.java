@@ -0,0 +1,50 @@
+package com.google.appinventor.components.runtime.util;
+
+public final class FramedPacket {
+    private byte[] array;
+    private final int headerSize;
+    private int length;
+
+    public FramedPacket(int headerSize, int initialCapacity) {
+        this.headerSize = headerSize;
+        this.array = new byte[Math.max(initialCapacity, headerSize)];
+    }
+
+    public void reset() {
+        this.length = 0;
+    }
+
+    public void frame(byte[] payload) {
+        reset();
+        append(payload);
+    }
+
+    public int append(byte[] payload) {
+        int offset = this.length;
+        ensureCapacity(this.headerSize + offset + payload.length);
+        System.arraycopy(payload, 0, this.array, this.headerSize + offset, payload.length);
+        this.length = this.headerSize + offset + payload.length;
+        return offset;
+    }
+
+    public void putUnsignedShort(int offset, int value) {
+        this.array[offset] = (byte) (value & 255);
+        this.array[offset + 1] = (byte) ((value >> 8) & 255);
+    }
+
+    public byte[] array() {
+        return this.array;
+    }
+
+    public int length() {
+        return this.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.array.length) {
+            byte[] array = new byte[Math.max(capacity, this.array.length * 2)];
+            System.arraycopy(this.array, 0, array, 0, this.length);
+            this.array = array;
+        }
+    }
+}
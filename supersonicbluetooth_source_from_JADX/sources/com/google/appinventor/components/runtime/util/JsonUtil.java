@@ -4,16 +4,22 @@ import android.os.Environment;
 import android.util.Base64;
 import android.util.Log;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+import gnu.kawa.functions.Arithmetic;
 import gnu.lists.FString;
+import gnu.lists.Pair;
 import gnu.math.IntFraction;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -21,6 +27,7 @@ import org.json.JSONTokener;
 
 public class JsonUtil {
     private static final String BINFILE_DIR = "/AppInventorBinaries";
+    private static final String HEX_DIGITS = "0123456789abcdef";
     private static final String LOG_TAG = "JsonUtil";
 
     /* renamed from: com.google.appinventor.components.runtime.util.JsonUtil$1 */
@@ -89,59 +96,209 @@ public class JsonUtil {
     }
 
     public static String getJsonRepresentation(Object value) throws JSONException {
-        if (value == null || value.equals(null)) {
-            return "null";
-        }
-        if (value instanceof FString) {
-            return JSONObject.quote(value.toString());
-        }
-        if (value instanceof YailList) {
-            return ((YailList) value).toJSONString();
-        }
-        if (value instanceof IntFraction) {
-            return JSONObject.numberToString(Double.valueOf(((IntFraction) value).doubleValue()));
-        }
-        if (value instanceof Number) {
-            return JSONObject.numberToString((Number) value);
-        }
-        if (value instanceof Boolean) {
-            return value.toString();
-        }
-        if (value instanceof List) {
-            value = ((List) value).toArray();
+        StringBuilder sb = new StringBuilder();
+        try {
+            appendJsonRepresentation(sb, value);
+            return sb.toString();
+        } catch (IOException e) {
+            throw new JSONException(e.getMessage());
         }
-        if (!value.getClass().isArray()) {
-            return JSONObject.quote(value.toString());
+    }
+
+    public static void writeJsonRepresentation(Writer writer, Object value) throws JSONException, IOException {
+        appendJsonRepresentation(writer, value);
+    }
+
+    private static void appendJsonRepresentation(Appendable out, Object value) throws JSONException, IOException {
+        if (value == null || value.equals(null)) {
+            out.append("null");
+        } else if ((value instanceof FString) || (value instanceof String)) {
+            appendQuoted(out, value.toString());
+        } else if (value instanceof YailList) {
+            out.append('[');
+            String separator = "";
+            for (Object list = ((YailList) value).getCdr(); list instanceof Pair; list = ((Pair) list).getCdr()) {
+                out.append(separator);
+                appendJsonRepresentation(out, ((Pair) list).getCar());
+                separator = ",";
+            }
+            out.append(']');
+        } else if (value instanceof IntFraction) {
+            out.append(JSONObject.numberToString(Double.valueOf(((IntFraction) value).doubleValue())));
+        } else if (value instanceof Number) {
+            out.append(JSONObject.numberToString((Number) value));
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof List) {
+            out.append('[');
+            String separator2 = "";
+            for (Object o : (List) value) {
+                out.append(separator2);
+                appendJsonRepresentation(out, o);
+                separator2 = ",";
+            }
+            out.append(']');
+        } else if (value.getClass().isArray()) {
+            out.append('[');
+            String separator3 = "";
+            for (Object o2 : (Object[]) value) {
+                out.append(separator3);
+                appendJsonRepresentation(out, o2);
+                separator3 = ",";
+            }
+            out.append(']');
+        } else {
+            appendQuoted(out, value.toString());
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        String separator = "";
-        for (Object o : (Object[]) value) {
-            sb.append(separator).append(getJsonRepresentation(o));
-            separator = ",";
+    }
+
+    private static void appendQuoted(Appendable out, String value) throws IOException {
+        out.append('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '"':
+                case '/':
+                case '\\':
+                    out.append('\\').append(c);
+                    break;
+                default:
+                    if (c > 31) {
+                        out.append(c);
+                        break;
+                    }
+                    out.append("\\u00").append(HEX_DIGITS.charAt(c >> 4)).append(HEX_DIGITS.charAt(c & 15));
+                    break;
+            }
         }
-        sb.append("]");
-        return sb.toString();
+        out.append('"');
     }
 
     public static Object getObjectFromJson(String jsonString) throws JSONException {
+        return getObjectFromJson(jsonString, false);
+    }
+
+    public static Object getYailObjectFromJson(String jsonString) throws JSONException {
+        return getObjectFromJson(jsonString, true);
+    }
+
+    private static Object getObjectFromJson(String jsonString, boolean yail) throws JSONException {
         if (jsonString == null || jsonString.equals("")) {
             return "";
         }
-        Object value = new JSONTokener(jsonString).nextValue();
+        JSONTokener tokener = new JSONTokener(jsonString);
+        char c = tokener.nextClean();
+        if (c == '[') {
+            return readJsonArray(tokener, yail);
+        }
+        if (c == '{') {
+            return readJsonObject(tokener, yail);
+        }
+        tokener.back();
+        Object value = tokener.nextValue();
         if (value == null || value.equals(null)) {
             return null;
         }
-        if ((value instanceof String) || (value instanceof Number) || (value instanceof Boolean)) {
+        if (value instanceof Number) {
+            return yail ? Arithmetic.asNumeric(value) : value;
+        }
+        if ((value instanceof String) || (value instanceof Boolean)) {
             return value;
         }
-        if (value instanceof JSONArray) {
-            return getListFromJsonArray((JSONArray) value);
+        throw new JSONException("Invalid JSON string.");
+    }
+
+    private static Object readJsonValue(JSONTokener tokener, boolean yail) throws JSONException {
+        char c = tokener.nextClean();
+        if (c == '[') {
+            return readJsonArray(tokener, yail);
         }
-        if (value instanceof JSONObject) {
-            return getListFromJsonObject((JSONObject) value);
+        if (c == '{') {
+            return readJsonObject(tokener, yail);
         }
-        throw new JSONException("Invalid JSON string.");
+        tokener.back();
+        Object value = convertJsonItem(tokener.nextValue());
+        return (yail && (value instanceof Number)) ? Arithmetic.asNumeric(value) : value;
+    }
+
+    private static Object readJsonArray(JSONTokener tokener, boolean yail) throws JSONException {
+        List<Object> items = new ArrayList();
+        char c = tokener.nextClean();
+        if (c != ']') {
+            while (true) {
+                if (c == 0) {
+                    throw tokener.syntaxError("Unterminated array");
+                } else if (c == ',' || c == ';' || c == ']') {
+                    throw new JSONException("Value at " + items.size() + " is null.");
+                }
+                tokener.back();
+                items.add(readJsonValue(tokener, yail));
+                c = tokener.nextClean();
+                if (c == ']') {
+                    break;
+                } else if (c != ',' && c != ';') {
+                    throw tokener.syntaxError("Unterminated array");
+                }
+                c = tokener.nextClean();
+            }
+        }
+        return yail ? YailList.makeList(items) : items;
+    }
+
+    private static Object readJsonObject(JSONTokener tokener, boolean yail) throws JSONException {
+        TreeMap<String, Object> entries = new TreeMap();
+        if (tokener.nextClean() != '}') {
+            tokener.back();
+            while (true) {
+                Object name = tokener.nextValue();
+                if (!(name instanceof String)) {
+                    throw tokener.syntaxError("Names must be strings, but " + name + " is not");
+                }
+                char c = tokener.nextClean();
+                if (c == '=') {
+                    if (tokener.next() != '>') {
+                        tokener.back();
+                    }
+                } else if (c != ':') {
+                    throw tokener.syntaxError("Expected ':' after " + name);
+                }
+                entries.put((String) name, readJsonValue(tokener, yail));
+                c = tokener.nextClean();
+                if (c == '}') {
+                    break;
+                } else if (c != ',' && c != ';') {
+                    throw tokener.syntaxError("Unterminated object");
+                }
+            }
+        }
+        List<Object> pairs = new ArrayList(entries.size());
+        for (Entry<String, Object> entry : entries.entrySet()) {
+            if (yail) {
+                pairs.add(YailList.makeList(new Object[]{entry.getKey(), entry.getValue()}));
+            } else {
+                List<Object> nestedList = new ArrayList(2);
+                nestedList.add(entry.getKey());
+                nestedList.add(entry.getValue());
+                pairs.add(nestedList);
+            }
+        }
+        return yail ? YailList.makeList(pairs) : pairs;
     }
 
     public static String getJsonRepresentationIfValueFileName(Object value) {
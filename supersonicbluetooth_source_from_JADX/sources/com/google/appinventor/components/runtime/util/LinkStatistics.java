@@ -0,0 +1,170 @@
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class LinkStatistics {
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong connectionsLost = new AtomicLong();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong readCalls = new AtomicLong();
+    private final Histogram readLatency = new Histogram();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong transmissions = new AtomicLong();
+    private final AtomicLong writeCalls = new AtomicLong();
+    private final Histogram writeLatency = new Histogram();
+
+    public static final class Histogram {
+        private static final int BUCKETS = 40;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+
+        public void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            this.buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(nanos), 39));
+            this.count.incrementAndGet();
+            this.total.addAndGet(nanos);
+            long current;
+            do {
+                current = this.max.get();
+                if (nanos <= current) {
+                    return;
+                }
+            } while (!this.max.compareAndSet(current, nanos));
+        }
+
+        public long getCount() {
+            return this.count.get();
+        }
+
+        public long getTotalNanos() {
+            return this.total.get();
+        }
+
+        public long getMaxNanos() {
+            return this.max.get();
+        }
+
+        public long getPercentileNanos(double percentile) {
+            long count = this.count.get();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil((((double) count) * percentile) / 100.0d);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += this.buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0 : 1L << i, this.max.get());
+                }
+            }
+            return this.max.get();
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.buckets.set(i, 0);
+            }
+            this.count.set(0);
+            this.total.set(0);
+            this.max.set(0);
+        }
+    }
+
+    public void recordRead(int bytes, long nanos) {
+        this.readCalls.incrementAndGet();
+        this.bytesReceived.addAndGet((long) bytes);
+        this.readLatency.record(nanos);
+    }
+
+    public void recordReceived(int bytes) {
+        this.bytesReceived.addAndGet((long) bytes);
+    }
+
+    public void recordFrames(int frames) {
+        this.framesReceived.addAndGet((long) frames);
+    }
+
+    public void recordWrite(int bytes, int frames) {
+        this.writeCalls.incrementAndGet();
+        this.bytesSent.addAndGet((long) bytes);
+        this.framesSent.addAndGet((long) frames);
+    }
+
+    public void recordTransmission(long nanos) {
+        this.transmissions.incrementAndGet();
+        this.writeLatency.record(nanos);
+    }
+
+    public void recordConnectionLost() {
+        this.connectionsLost.incrementAndGet();
+    }
+
+    public void recordReconnect() {
+        this.reconnects.incrementAndGet();
+    }
+
+    public Histogram getReadLatency() {
+        return this.readLatency;
+    }
+
+    public Histogram getWriteLatency() {
+        return this.writeLatency;
+    }
+
+    public void reset() {
+        this.bytesReceived.set(0);
+        this.bytesSent.set(0);
+        this.connectionsLost.set(0);
+        this.framesReceived.set(0);
+        this.framesSent.set(0);
+        this.readCalls.set(0);
+        this.reconnects.set(0);
+        this.transmissions.set(0);
+        this.writeCalls.set(0);
+        this.readLatency.reset();
+        this.writeLatency.reset();
+    }
+
+    public List<Object> toList(int sendQueueDepth) {
+        List<Object> list = new ArrayList();
+        add(list, "BytesReceived", Long.valueOf(this.bytesReceived.get()));
+        add(list, "BytesSent", Long.valueOf(this.bytesSent.get()));
+        add(list, "FramesReceived", Long.valueOf(this.framesReceived.get()));
+        add(list, "FramesSent", Long.valueOf(this.framesSent.get()));
+        add(list, "ReadCalls", Long.valueOf(this.readCalls.get()));
+        add(list, "WriteCalls", Long.valueOf(this.writeCalls.get()));
+        add(list, "Transmissions", Long.valueOf(this.transmissions.get()));
+        addHistogram(list, "Read", this.readLatency);
+        addHistogram(list, "Write", this.writeLatency);
+        add(list, "SendQueueDepth", Integer.valueOf(sendQueueDepth));
+        add(list, "ConnectionsLost", Long.valueOf(this.connectionsLost.get()));
+        add(list, "Reconnects", Long.valueOf(this.reconnects.get()));
+        return list;
+    }
+
+    private static void addHistogram(List<Object> list, String prefix, Histogram histogram) {
+        add(list, prefix + "TimeMs", Double.valueOf(toMillis(histogram.getTotalNanos())));
+        add(list, prefix + "LatencyP50Ms", Double.valueOf(toMillis(histogram.getPercentileNanos(50.0d))));
+        add(list, prefix + "LatencyP90Ms", Double.valueOf(toMillis(histogram.getPercentileNanos(90.0d))));
+        add(list, prefix + "LatencyP99Ms", Double.valueOf(toMillis(histogram.getPercentileNanos(99.0d))));
+        add(list, prefix + "LatencyMaxMs", Double.valueOf(toMillis(histogram.getMaxNanos())));
+    }
+
+    private static void add(List<Object> list, String name, Object value) {
+        list.add(Arrays.asList(new Object[]{name, value}));
+    }
+
+    private static double toMillis(long nanos) {
+        return ((double) nanos) / 1000000.0d;
+    }
+}
@@ -0,0 +1,254 @@
+package com.google.appinventor.components.runtime.util;
+
+import gnu.math.IntNum;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class RecordFormat {
+    private static final int MAX_FORMATS = 256;
+    private static final double TWO_TO_THE_63 = 9.223372036854775807E18d;
+    private static final Map<String, RecordFormat> cache = new HashMap();
+    private final char[] fields;
+    private final String format;
+    private final int size;
+    private final int valueCount;
+
+    private RecordFormat(String format, char[] fields, int size) {
+        this.format = format;
+        this.fields = fields;
+        this.size = size;
+        int count = 0;
+        for (char symbol : fields) {
+            if (symbol != 'x') {
+                count++;
+            }
+        }
+        this.valueCount = count;
+    }
+
+    public static RecordFormat compile(String format) throws IllegalArgumentException {
+        RecordFormat recordFormat;
+        synchronized (cache) {
+            recordFormat = (RecordFormat) cache.get(format);
+        }
+        if (recordFormat == null) {
+            recordFormat = parse(format);
+            synchronized (cache) {
+                if (cache.size() >= MAX_FORMATS) {
+                    cache.clear();
+                }
+                cache.put(format, recordFormat);
+            }
+        }
+        return recordFormat;
+    }
+
+    private static RecordFormat parse(String format) throws IllegalArgumentException {
+        StringBuilder fields = new StringBuilder();
+        int size = 0;
+        int count = -1;
+        for (int i = 0; i < format.length(); i++) {
+            char symbol = format.charAt(i);
+            if (Character.isWhitespace(symbol)) {
+                if (count != -1) {
+                    throw new IllegalArgumentException("Illegal format string");
+                }
+            } else if (symbol >= '0' && symbol <= '9') {
+                count = (count == -1 ? 0 : count * 10) + (symbol - 48);
+                if (count > 65535) {
+                    throw new IllegalArgumentException("Illegal format string");
+                }
+            } else {
+                int fieldSize = fieldSize(symbol);
+                if (fieldSize == 0 || count == 0) {
+                    throw new IllegalArgumentException("Illegal format string");
+                }
+                int repeat = count == -1 ? 1 : count;
+                for (int j = 0; j < repeat; j++) {
+                    fields.append(symbol);
+                }
+                size += fieldSize * repeat;
+                count = -1;
+            }
+        }
+        if (count != -1 || fields.length() == 0) {
+            throw new IllegalArgumentException("Illegal format string");
+        }
+        char[] array = new char[fields.length()];
+        fields.getChars(0, array.length, array, 0);
+        return new RecordFormat(format, array, size);
+    }
+
+    private static int fieldSize(char symbol) {
+        switch (symbol) {
+            case 'B':
+            case 'b':
+            case 'x':
+                return 1;
+            case 'H':
+            case 'h':
+                return 2;
+            case 'I':
+            case 'f':
+            case 'i':
+                return 4;
+            case 'd':
+            case 'l':
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    public String getFormat() {
+        return this.format;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int valueCount() {
+        return this.valueCount;
+    }
+
+    public Object[] decode(byte[] bytes, ByteOrder byteOrder) throws IllegalArgumentException {
+        if (bytes.length < this.size) {
+            throw new IllegalArgumentException("Expected " + this.size + " bytes but got " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, this.size);
+        buffer.order(byteOrder);
+        Object[] values = new Object[this.valueCount];
+        int index = 0;
+        for (char symbol : this.fields) {
+            switch (symbol) {
+                case 'B':
+                    values[index] = Integer.valueOf(buffer.get() & 255);
+                    break;
+                case 'H':
+                    values[index] = Integer.valueOf(buffer.getShort() & 65535);
+                    break;
+                case 'I':
+                    values[index] = Long.valueOf(((long) buffer.getInt()) & 4294967295L);
+                    break;
+                case 'b':
+                    values[index] = Integer.valueOf(buffer.get());
+                    break;
+                case 'd':
+                    values[index] = Double.valueOf(buffer.getDouble());
+                    break;
+                case 'f':
+                    values[index] = Double.valueOf((double) buffer.getFloat());
+                    break;
+                case 'h':
+                    values[index] = Integer.valueOf(buffer.getShort());
+                    break;
+                case 'i':
+                    values[index] = Integer.valueOf(buffer.getInt());
+                    break;
+                case 'l':
+                    values[index] = Long.valueOf(buffer.getLong());
+                    break;
+                default:
+                    buffer.get();
+                    continue;
+            }
+            index++;
+        }
+        return values;
+    }
+
+    public byte[] encode(Object[] values, ByteOrder byteOrder) throws IllegalArgumentException {
+        if (values.length != this.valueCount) {
+            throw new IllegalArgumentException("Expected " + this.valueCount + " values but got " + values.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(this.size);
+        buffer.order(byteOrder);
+        int index = 0;
+        for (char symbol : this.fields) {
+            switch (symbol) {
+                case 'B':
+                    buffer.put((byte) ((int) integerValue(values, index, 0, 255)));
+                    break;
+                case 'H':
+                    buffer.putShort((short) ((int) integerValue(values, index, 0, 65535)));
+                    break;
+                case 'I':
+                    buffer.putInt((int) integerValue(values, index, 0, 4294967295L));
+                    break;
+                case 'b':
+                    buffer.put((byte) ((int) integerValue(values, index, -128, 127)));
+                    break;
+                case 'd':
+                    buffer.putDouble(doubleValue(values, index));
+                    break;
+                case 'f':
+                    buffer.putFloat((float) doubleValue(values, index));
+                    break;
+                case 'h':
+                    buffer.putShort((short) ((int) integerValue(values, index, -32768, 32767)));
+                    break;
+                case 'i':
+                    buffer.putInt((int) integerValue(values, index, -2147483648L, 2147483647L));
+                    break;
+                case 'l':
+                    buffer.putLong(integerValue(values, index, Long.MIN_VALUE, Long.MAX_VALUE));
+                    break;
+                default:
+                    buffer.put((byte) 0);
+                    continue;
+            }
+            index++;
+        }
+        return buffer.array();
+    }
+
+    private static long integerValue(Object[] values, int index, long min, long max) throws IllegalArgumentException {
+        Object value = values[index];
+        if (value instanceof IntNum) {
+            IntNum n = (IntNum) value;
+            if (IntNum.compare(n, min) >= 0 && IntNum.compare(n, max) <= 0) {
+                return n.longValue();
+            }
+        } else if (value instanceof BigInteger) {
+            BigInteger n2 = (BigInteger) value;
+            if (n2.bitLength() < 64 && n2.longValue() >= min && n2.longValue() <= max) {
+                return n2.longValue();
+            }
+        } else if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            long n3 = ((Number) value).longValue();
+            if (n3 >= min && n3 <= max) {
+                return n3;
+            }
+        } else if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && d >= ((double) min) && d <= ((double) max) && d < TWO_TO_THE_63) {
+                return (long) d;
+            }
+        } else {
+            try {
+                long n4 = Long.decode(value.toString()).longValue();
+                if (n4 >= min && n4 <= max) {
+                    return n4;
+                }
+            } catch (NumberFormatException e) {
+            }
+        }
+        throw new IllegalArgumentException("Could not fit element " + (index + 1) + " (" + value + ") into its field");
+    }
+
+    private static double doubleValue(Object[] values, int index) throws IllegalArgumentException {
+        Object value = values[index];
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Could not decode element " + (index + 1) + " (" + value + ") as a number");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.google.appinventor.components.runtime.util;
+
+import android.content.Context;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class RuntimeProfiler {
+    public static final String COLLAPSED_STACKS_FILE = "profile.folded";
+    public static final String REPORT_FILE = "profile-report.txt";
+    private static final ThreadLocal<Frame> current = new ThreadLocal();
+    private static volatile boolean enabled;
+    private static final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap();
+    private static final ConcurrentHashMap<String, AtomicLong> stacks = new ConcurrentHashMap();
+
+    private static final class Counters {
+        final AtomicLong calls = new AtomicLong();
+        final String name;
+        final AtomicLong selfNanos = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+
+        Counters(String name) {
+            this.name = name;
+        }
+    }
+
+    public static final class Frame {
+        private long childNanos;
+        private final String name;
+        private final Frame parent;
+        private final String stack;
+        private final long start = System.nanoTime();
+
+        private Frame(Frame parent, String name) {
+            this.parent = parent;
+            this.name = name;
+            this.stack = parent == null ? name : parent.stack + ';' + name;
+        }
+    }
+
+    private RuntimeProfiler() {
+    }
+
+    public static void start() {
+        enabled = true;
+    }
+
+    public static void stop() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void reset() {
+        counters.clear();
+        stacks.clear();
+    }
+
+    public static Frame enter(Object owner, char separator, Object member) {
+        if (!enabled) {
+            return null;
+        }
+        Frame frame = new Frame((Frame) current.get(), String.valueOf(owner) + separator + member);
+        current.set(frame);
+        return frame;
+    }
+
+    public static void exit(Frame frame) {
+        if (frame != null) {
+            long elapsed = System.nanoTime() - frame.start;
+            long self = elapsed - frame.childNanos;
+            current.set(frame.parent);
+            if (frame.parent != null) {
+                frame.parent.childNanos += elapsed;
+            }
+            Counters entry = counters(frame.name);
+            entry.calls.incrementAndGet();
+            entry.totalNanos.addAndGet(elapsed);
+            entry.selfNanos.addAndGet(self);
+            stackTime(frame.stack).addAndGet(self);
+        }
+    }
+
+    public static String report() {
+        List<Counters> entries = new ArrayList(counters.values());
+        Collections.sort(entries, new Comparator<Counters>() {
+            public int compare(Counters a, Counters b) {
+                long x = a.totalNanos.get();
+                long y = b.totalNanos.get();
+                if (x > y) {
+                    return -1;
+                }
+                return x < y ? 1 : 0;
+            }
+        });
+        StringBuilder sb = new StringBuilder();
+        sb.append("name\tcalls\ttotal_ms\tself_ms\n");
+        for (Counters entry : entries) {
+            sb.append(entry.name).append('\t').append(entry.calls.get()).append('\t').append(((double) entry.totalNanos.get()) / 1000000.0d).append('\t').append(((double) entry.selfNanos.get()) / 1000000.0d).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static String collapsedStacks() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry<String, AtomicLong> entry : stacks.entrySet()) {
+            long micros = ((AtomicLong) entry.getValue()).get() / 1000;
+            if (micros > 0) {
+                sb.append((String) entry.getKey()).append(' ').append(micros).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static File dump(Context context) throws IOException {
+        File directory = context.getExternalFilesDir(null);
+        if (directory == null) {
+            directory = context.getFilesDir();
+        }
+        write(new File(directory, REPORT_FILE), report());
+        write(new File(directory, COLLAPSED_STACKS_FILE), collapsedStacks());
+        return directory;
+    }
+
+    private static void write(File file, String text) throws IOException {
+        OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(text);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static Counters counters(String name) {
+        Counters entry = (Counters) counters.get(name);
+        if (entry != null) {
+            return entry;
+        }
+        Counters entry2 = new Counters(name);
+        Counters existing = (Counters) counters.putIfAbsent(name, entry2);
+        return existing == null ? entry2 : existing;
+    }
+
+    private static AtomicLong stackTime(String stack) {
+        AtomicLong time = (AtomicLong) stacks.get(stack);
+        if (time != null) {
+            return time;
+        }
+        AtomicLong time2 = new AtomicLong();
+        AtomicLong existing = (AtomicLong) stacks.putIfAbsent(stack, time2);
+        return existing == null ? time2 : existing;
+    }
+}
@@ -10,6 +10,8 @@ import org.json.JSONException;
 
 public class YailList extends Pair {
     private static final String LOG_TAG = "YailList";
+    private Pair[] nodes;
+    private int nodeCount;
 
     public YailList() {
         super(YailConstants.YAIL_HEADER, LList.Empty);
@@ -35,6 +37,14 @@ public class YailList extends Pair {
         return new YailList(LList.makeList(vals.toArray(), 0));
     }
 
+    public static YailList makeByteList(byte[] bytes, boolean unsigned) {
+        Object list = LList.Empty;
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            list = new Pair(IntNum.make(unsigned ? bytes[i] & 255 : bytes[i]), list);
+        }
+        return new YailList(list);
+    }
+
     public Object[] toArray() {
         if (this.cdr instanceof Pair) {
             return ((Pair) this.cdr).toArray();
@@ -54,6 +64,136 @@ public class YailList extends Pair {
         return objects;
     }
 
+    public Object getItem(int index) {
+        return this.nodes(index)[index - 1].getCar();
+    }
+
+    public void setItem(int index, Object value) {
+        this.nodes(index)[index - 1].setCar(value);
+    }
+
+    public void insertItem(int index, Object item) {
+        Pair[] nodes = nodes(index - 1);
+        int count = this.nodeCount;
+        Pair node;
+        if (index == 1) {
+            node = new Pair(item, this.cdr);
+            this.cdr = node;
+        } else {
+            Pair previous = nodes[index - 2];
+            node = new Pair(item, previous.getCdr());
+            previous.setCdr(node);
+        }
+        if (count == nodes.length) {
+            Pair[] grown = new Pair[(count * 2)];
+            System.arraycopy(nodes, 0, grown, 0, count);
+            nodes = grown;
+            this.nodes = grown;
+        }
+        System.arraycopy(nodes, index - 1, nodes, index, count - (index - 1));
+        nodes[index - 1] = node;
+        this.nodeCount = count + 1;
+    }
+
+    public void removeItem(int index) {
+        Pair[] nodes = nodes(index);
+        int count = this.nodeCount;
+        Pair node = nodes[index - 1];
+        if (index == 1) {
+            this.cdr = node.getCdr();
+        } else {
+            nodes[index - 2].setCdr(node.getCdr());
+        }
+        System.arraycopy(nodes, index, nodes, index - 1, count - index);
+        nodes[count - 1] = null;
+        this.nodeCount = count - 1;
+    }
+
+    public void appendItems(Object items) {
+        Pair[] nodes = nodes(0);
+        int count = this.nodeCount;
+        if (count == 0) {
+            this.cdr = items;
+        } else {
+            nodes[count - 1].setCdr(items);
+        }
+        for (Object list = items; list instanceof Pair; list = ((Pair) list).getCdr()) {
+            if (count == nodes.length) {
+                Pair[] grown = new Pair[(count * 2)];
+                System.arraycopy(nodes, 0, grown, 0, count);
+                nodes = grown;
+                this.nodes = grown;
+            }
+            nodes[count] = (Pair) list;
+            count++;
+        }
+        this.nodeCount = count;
+    }
+
+    public void setCdr(Object cdr) {
+        super.setCdr(cdr);
+        this.nodes = null;
+    }
+
+    public void setCdrBackdoor(Object cdr) {
+        super.setCdrBackdoor(cdr);
+        this.nodes = null;
+    }
+
+    public Object get(int index) {
+        if (index <= 0 || !isIndexed()) {
+            return super.get(index);
+        }
+        if (index <= this.nodeCount) {
+            return this.nodes[index - 1].getCar();
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    private Pair[] nodes(int index) {
+        if (!isIndexed()) {
+            throw new YailRuntimeError("YailList is not a proper list", "YailList Error.");
+        }
+        if (index > this.nodeCount) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this.nodes;
+    }
+
+    private boolean isIndexed() {
+        Pair[] nodes = this.nodes;
+        int count = this.nodeCount;
+        if (nodes != null) {
+            if (count == 0) {
+                if (this.cdr == LList.Empty) {
+                    return true;
+                }
+            } else if (this.cdr == nodes[0] && nodes[count - 1].getCdr() == LList.Empty) {
+                return true;
+            }
+        }
+        nodes = new Pair[16];
+        count = 0;
+        Object list = this.cdr;
+        while (list instanceof Pair) {
+            if (count == nodes.length) {
+                Pair[] grown = new Pair[(count * 2)];
+                System.arraycopy(nodes, 0, grown, 0, count);
+                nodes = grown;
+            }
+            nodes[count] = (Pair) list;
+            count++;
+            list = ((Pair) list).getCdr();
+        }
+        if (list != LList.Empty) {
+            this.nodes = null;
+            return false;
+        }
+        this.nodes = nodes;
+        this.nodeCount = count;
+        return true;
+    }
+
     public static String YailListElementToString(Object element) {
         if (element instanceof IntNum) {
             return ((IntNum) element).toString(10);
@@ -69,22 +209,16 @@ public class YailList extends Pair {
 
     public String toJSONString() {
         try {
-            StringBuilder json = new StringBuilder();
-            String separator = "";
-            json.append('[');
-            int size = size();
-            for (int i = 1; i <= size; i++) {
-                json.append(separator).append(JsonUtil.getJsonRepresentation(get(i)));
-                separator = ",";
-            }
-            json.append(']');
-            return json.toString();
+            return JsonUtil.getJsonRepresentation(this);
         } catch (JSONException e) {
             throw new YailRuntimeError("List failed to convert to JSON.", "JSON Creation Error.");
         }
     }
 
     public int size() {
+        if (isIndexed()) {
+            return this.nodeCount;
+        }
         return super.size() - 1;
     }
 
@@ -14,11 +14,19 @@ import com.google.appinventor.components.runtime.Form;
 import com.google.appinventor.components.runtime.errors.PermissionException;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
 import com.google.appinventor.components.runtime.util.AssetFetcher;
+import com.google.appinventor.components.runtime.util.CoercionPlan;
+import com.google.appinventor.components.runtime.util.CoercionPlan.Coercer;
+import com.google.appinventor.components.runtime.util.CoercionPlan.Compiler;
+import com.google.appinventor.components.runtime.util.ComponentMethodCache;
 import com.google.appinventor.components.runtime.util.CsvUtil;
 import com.google.appinventor.components.runtime.util.ErrorMessages;
+import com.google.appinventor.components.runtime.util.FixnumArithmetic;
+import com.google.appinventor.components.runtime.util.FormEnvironmentCache;
 import com.google.appinventor.components.runtime.util.JavaJoinListOfStrings;
 import com.google.appinventor.components.runtime.util.PropertyUtil;
 import com.google.appinventor.components.runtime.util.RetValManager;
+import com.google.appinventor.components.runtime.util.RuntimeProfiler;
+import com.google.appinventor.components.runtime.util.RuntimeProfiler.Frame;
 import com.google.appinventor.components.runtime.util.YailList;
 import com.google.appinventor.components.runtime.util.YailNumberToString;
 import gnu.bytecode.ClassType;
@@ -127,6 +135,58 @@ public class runtime extends ModuleBody implements Runnable {
     public static final Class JavaIterator = Iterator.class;
     public static final Class JavaJoinListOfStrings = JavaJoinListOfStrings.class;
     public static final Class KawaEnvironment = Environment.class;
+    static final Coercer anyCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            return runtime.sanitizeAtomic(arg);
+        }
+    };
+    static final Coercer booleanCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            if (arg instanceof Boolean) {
+                return arg;
+            }
+            return runtime.coerceToBoolean(runtime.sanitizeAtomic(arg));
+        }
+    };
+    static final Coercer componentCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            if (arg instanceof Component) {
+                return arg;
+            }
+            return runtime.coerceToComponent(runtime.sanitizeAtomic(arg));
+        }
+    };
+    static final Compiler coercerCompiler = new Compiler() {
+        public Coercer compile(Object type) {
+            return runtime.coercerFor(type);
+        }
+    };
+    static final Coercer instantCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            return runtime.coerceToInstant(runtime.sanitizeAtomic(arg));
+        }
+    };
+    static final Coercer listCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            return runtime.coerceToYailList(runtime.sanitizeAtomic(arg));
+        }
+    };
+    static final Coercer numberCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            if ((arg instanceof IntNum) || (arg instanceof DFloNum)) {
+                return arg;
+            }
+            return runtime.coerceToNumber(runtime.sanitizeAtomic(arg));
+        }
+    };
+    static final Coercer textCoercer = new Coercer() {
+        public Object coerce(Object arg) {
+            if (arg instanceof String) {
+                return arg;
+            }
+            return runtime.coerceToText(runtime.sanitizeAtomic(arg));
+        }
+    };
     static final SimpleSymbol Lit0;
     static final SimpleSymbol Lit1;
     static final SimpleSymbol Lit10 = ((SimpleSymbol) new SimpleSymbol("any").readResolve());
@@ -3125,42 +3185,50 @@ public class runtime extends ModuleBody implements Runnable {
         }
     }
 
-    public static Object addToCurrentFormEnvironment(Symbol name, Object object) {
-        if ($Stthis$Mnform$St != null) {
-            return Invoke.invokeStatic.applyN(new Object[]{KawaEnvironment, Lit0, SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-environment", "form$Mnenvironment", "getFormEnvironment", "isFormEnvironment", Scheme.instance), name, object});
+    public static Environment currentFormEnvironment() {
+        Object obj = $Stthis$Mnform$St;
+        if (obj == null) {
+            try {
+                return (Environment) $Sttest$Mnenvironment$St;
+            } catch (ClassCastException e) {
+                throw new WrongType(e, "current-form-environment", -2, $Sttest$Mnenvironment$St);
+            }
+        }
+        Environment environment = FormEnvironmentCache.environment(obj);
+        if (environment != null) {
+            return environment;
+        }
+        Object env = SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-environment", "form$Mnenvironment", "getFormEnvironment", "isFormEnvironment", Scheme.instance);
+        try {
+            Environment environment2 = (Environment) env;
+            FormEnvironmentCache.bind(obj, environment2);
+            return environment2;
+        } catch (ClassCastException e2) {
+            throw new WrongType(e2, "current-form-environment", -2, env);
         }
-        return Invoke.invokeStatic.applyN(new Object[]{KawaEnvironment, Lit0, $Sttest$Mnenvironment$St, name, object});
+    }
+
+    public static Object addToCurrentFormEnvironment(Symbol name, Object object) {
+        currentFormEnvironment().put(name, object);
+        FormEnvironmentCache.invalidate(name);
+        return Values.empty;
     }
 
     public static Object lookupInCurrentFormEnvironment(Symbol name, Object default$Mnvalue) {
-        Object env = $Stthis$Mnform$St != null ? SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-environment", "form$Mnenvironment", "getFormEnvironment", "isFormEnvironment", Scheme.instance) : $Sttest$Mnenvironment$St;
-        try {
-            if (((Environment) env).isBound(name)) {
-                return Invoke.invokeStatic.apply4(KawaEnvironment, Lit1, env, name);
-            }
-            return default$Mnvalue;
-        } catch (ClassCastException e) {
-            throw new WrongType(e, "gnu.mapping.Environment.isBound(gnu.mapping.Symbol)", 1, env);
-        }
+        return FormEnvironmentCache.lookup(currentFormEnvironment(), name, default$Mnvalue);
     }
 
     public static Object deleteFromCurrentFormEnvironment(Symbol name) {
-        if ($Stthis$Mnform$St != null) {
-            return Invoke.invokeStatic.apply4(KawaEnvironment, Lit3, SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-environment", "form$Mnenvironment", "getFormEnvironment", "isFormEnvironment", Scheme.instance), name);
-        }
-        return Invoke.invokeStatic.apply4(KawaEnvironment, Lit3, $Sttest$Mnenvironment$St, name);
+        currentFormEnvironment().remove(name);
+        FormEnvironmentCache.invalidate(name);
+        return Values.empty;
     }
 
     public static Object renameInCurrentFormEnvironment(Symbol old$Mnname, Symbol new$Mnname) {
         if (Scheme.isEqv.apply2(old$Mnname, new$Mnname) != Boolean.FALSE) {
             return Values.empty;
         }
-        Object old$Mnvalue = lookupInCurrentFormEnvironment(old$Mnname);
-        if ($Stthis$Mnform$St != null) {
-            Invoke.invokeStatic.applyN(new Object[]{KawaEnvironment, Lit0, SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-environment", "form$Mnenvironment", "getFormEnvironment", "isFormEnvironment", Scheme.instance), new$Mnname, old$Mnvalue});
-        } else {
-            Invoke.invokeStatic.applyN(new Object[]{KawaEnvironment, Lit0, $Sttest$Mnenvironment$St, new$Mnname, old$Mnvalue});
-        }
+        addToCurrentFormEnvironment(new$Mnname, lookupInCurrentFormEnvironment(old$Mnname));
         return deleteFromCurrentFormEnvironment(old$Mnname);
     }
 
@@ -3190,6 +3258,7 @@ public class runtime extends ModuleBody implements Runnable {
             Object form$Mnname = SlotGet.getSlotValue(false, $Stthis$Mnform$St, "form-name-symbol", "form$Mnname$Mnsymbol", "getFormNameSymbol", "isFormNameSymbol", Scheme.instance);
             try {
                 SlotSet.set$Mnfield$Ex.apply3($Stthis$Mnform$St, "form-environment", Environment.make(misc.symbol$To$String((Symbol) form$Mnname)));
+                FormEnvironmentCache.clear();
                 try {
                     addToCurrentFormEnvironment((Symbol) form$Mnname, $Stthis$Mnform$St);
                     Procedure procedure = SlotSet.set$Mnfield$Ex;
@@ -3300,34 +3369,33 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object callComponentMethod(Object component$Mnname, Object method$Mnname, Object arglist, Object typelist) {
+        Object[] coerced$Mnargs = coerceArgArray(method$Mnname, arglist, typelist, 1);
         Object result;
-        if (isAllCoercible(coerceArgs(method$Mnname, arglist, typelist)) != Boolean.FALSE) {
+        if (isAllCoercible(coerced$Mnargs, 1)) {
             Object apply2;
+            Frame frame = RuntimeProfiler.enter(component$Mnname, '.', method$Mnname);
             try {
-                Procedure procedure = Scheme.apply;
-                Invoke invoke = Invoke.invoke;
-                Object[] objArr = new Object[2];
-                objArr[0] = lookupInCurrentFormEnvironment((Symbol) component$Mnname);
-                Object[] objArr2 = new Object[2];
-                objArr2[0] = method$Mnname;
-                objArr2[1] = Quote.append$V(new Object[]{coerced$Mnargs, LList.Empty});
-                objArr[1] = Quote.consX$V(objArr2);
-                apply2 = procedure.apply2(invoke, Quote.consX$V(objArr));
-            } catch (ClassCastException e) {
-                throw new WrongType(e, "lookup-in-current-form-environment", 0, component$Mnname);
-            } catch (PermissionException exception) {
-                Procedure procedure2 = Invoke.invoke;
-                Object[] objArr3 = new Object[5];
-                objArr3[0] = Form.getActiveForm();
-                objArr3[1] = "dispatchPermissionDeniedEvent";
                 try {
-                    objArr3[2] = lookupInCurrentFormEnvironment((Symbol) component$Mnname);
-                    objArr3[3] = method$Mnname;
-                    objArr3[4] = exception;
-                    apply2 = procedure2.applyN(objArr3);
-                } catch (ClassCastException e2) {
-                    throw new WrongType(e2, "lookup-in-current-form-environment", 0, component$Mnname);
+                    coerced$Mnargs[0] = lookupInCurrentFormEnvironment((Symbol) component$Mnname);
+                    apply2 = ComponentMethodCache.invoke(method$Mnname, coerced$Mnargs);
+                } catch (ClassCastException e) {
+                    throw new WrongType(e, "lookup-in-current-form-environment", 0, component$Mnname);
+                } catch (PermissionException exception) {
+                    Procedure procedure2 = Invoke.invoke;
+                    Object[] objArr3 = new Object[5];
+                    objArr3[0] = Form.getActiveForm();
+                    objArr3[1] = "dispatchPermissionDeniedEvent";
+                    try {
+                        objArr3[2] = lookupInCurrentFormEnvironment((Symbol) component$Mnname);
+                        objArr3[3] = method$Mnname;
+                        objArr3[4] = exception;
+                        apply2 = procedure2.applyN(objArr3);
+                    } catch (ClassCastException e2) {
+                        throw new WrongType(e2, "lookup-in-current-form-environment", 0, component$Mnname);
+                    }
                 }
+            } finally {
+                RuntimeProfiler.exit(frame);
             }
             result = apply2;
         } else {
@@ -3337,22 +3405,20 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object callComponentTypeMethod(Object possible$Mncomponent, Object component$Mntype, Object method$Mnname, Object arglist, Object typelist) {
-        Object coerced$Mnargs = coerceArgs(method$Mnname, arglist, lists.cdr.apply1(typelist));
+        Object[] coerced$Mnargs = coerceArgArray(method$Mnname, arglist, lists.cdr.apply1(typelist), 1);
         Object component$Mnvalue = coerceToComponentOfType(possible$Mncomponent, component$Mntype);
         if (!(component$Mnvalue instanceof Component)) {
             return generateRuntimeTypeError(method$Mnname, LList.list1(getDisplayRepresentation(possible$Mncomponent)));
         }
         Object result;
-        if (isAllCoercible(coerced$Mnargs) != Boolean.FALSE) {
-            Procedure procedure = Scheme.apply;
-            Invoke invoke = Invoke.invoke;
-            Object[] objArr = new Object[2];
-            objArr[0] = component$Mnvalue;
-            Object[] objArr2 = new Object[2];
-            objArr2[0] = method$Mnname;
-            objArr2[1] = Quote.append$V(new Object[]{coerced$Mnargs, LList.Empty});
-            objArr[1] = Quote.consX$V(objArr2);
-            result = procedure.apply2(invoke, Quote.consX$V(objArr));
+        if (isAllCoercible(coerced$Mnargs, 1)) {
+            coerced$Mnargs[0] = component$Mnvalue;
+            Frame frame = RuntimeProfiler.enter(component$Mntype, '.', method$Mnname);
+            try {
+                result = ComponentMethodCache.invoke(method$Mnname, coerced$Mnargs);
+            } finally {
+                RuntimeProfiler.exit(frame);
+            }
         } else {
             result = generateRuntimeTypeError(method$Mnname, arglist);
         }
@@ -3360,9 +3426,9 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object callYailPrimitive(Object prim, Object arglist, Object typelist, Object codeblocks$Mnname) {
-        Object coerced$Mnargs = coerceArgs(codeblocks$Mnname, arglist, typelist);
-        if (isAllCoercible(coerced$Mnargs) != Boolean.FALSE) {
-            return Scheme.apply.apply2(prim, coerced$Mnargs);
+        Object[] coerced$Mnargs = coerceArgArray(codeblocks$Mnname, arglist, typelist, 0);
+        if (isAllCoercible(coerced$Mnargs, 0)) {
+            return applyCoercedArgs(prim, coerced$Mnargs);
         }
         return generateRuntimeTypeError(codeblocks$Mnname, arglist);
     }
@@ -3428,13 +3494,20 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object callWithCoercedArgs(Object func, Object arglist, Object typelist, Object codeblocks$Mnname) {
-        Object coerced$Mnargs = coerceArgs(codeblocks$Mnname, arglist, typelist);
-        if (isAllCoercible(coerced$Mnargs) != Boolean.FALSE) {
-            return Scheme.apply.apply2(func, coerced$Mnargs);
+        Object[] coerced$Mnargs = coerceArgArray(codeblocks$Mnname, arglist, typelist, 0);
+        if (isAllCoercible(coerced$Mnargs, 0)) {
+            return applyCoercedArgs(func, coerced$Mnargs);
         }
         return generateRuntimeTypeError(codeblocks$Mnname, arglist);
     }
 
+    public static Object applyCoercedArgs(Object func, Object[] coerced$Mnargs) {
+        if (func instanceof Procedure) {
+            return ((Procedure) func).applyN(coerced$Mnargs);
+        }
+        return Scheme.apply.apply2(func, LList.makeList(coerced$Mnargs, 0));
+    }
+
     public static Object $PcSetAndCoerceProperty$Ex(Object comp, Object prop$Mnname, Object property$Mnvalue, Object property$Mntype) {
         androidLog(Format.formatToString(0, "coercing for setting property ~A -- value ~A to type ~A", prop$Mnname, property$Mnvalue, property$Mntype));
         Object coerced$Mnarg = coerceArg(property$Mnvalue, property$Mntype);
@@ -3504,67 +3577,74 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object coerceArgs(Object procedure$Mnname, Object arglist, Object typelist) {
+        if (lists.isNull(typelist) && lists.isNull(arglist)) {
+            return arglist;
+        }
+        return LList.makeList(coerceArgArray(procedure$Mnname, arglist, typelist, 0), 0);
+    }
+
+    public static Object[] coerceArgArray(Object procedure$Mnname, Object arglist, Object typelist, int offset) {
         if (!lists.isNull(typelist)) {
+            CoercionPlan plan = CoercionPlan.forTypes(typelist, coercerCompiler);
             try {
-                try {
-                    if (lists.length((LList) arglist) != lists.length((LList) typelist)) {
-                        return signalRuntimeError(strings.stringAppend("The arguments ", showArglistNoParens(arglist), " are the wrong number of arguments for ", getDisplayRepresentation(procedure$Mnname)), strings.stringAppend("Wrong number of arguments for", getDisplayRepresentation(procedure$Mnname)));
-                    }
-                    Pair result = LList.Empty;
-                    Object arg0 = arglist;
-                    Object obj = typelist;
-                    while (arg0 != LList.Empty && obj != LList.Empty) {
-                        try {
-                            Pair arg02 = (Pair) arg0;
-                            try {
-                                Pair arg1 = (Pair) obj;
-                                Object arg03 = arg02.getCdr();
-                                Object arg12 = arg1.getCdr();
-                                result = Pair.make(coerceArg(arg02.getCar(), arg1.getCar()), result);
-                                obj = arg12;
-                                arg0 = arg03;
-                            } catch (ClassCastException e) {
-                                throw new WrongType(e, "arg1", -2, obj);
-                            }
-                        } catch (ClassCastException e2) {
-                            throw new WrongType(e2, "arg0", -2, arg0);
-                        }
-                    }
-                    return LList.reverseInPlace(result);
-                } catch (ClassCastException e22) {
-                    throw new WrongType(e22, "length", 1, typelist);
+                if (lists.length((LList) arglist) != plan.size()) {
+                    signalRuntimeError(strings.stringAppend("The arguments ", showArglistNoParens(arglist), " are the wrong number of arguments for ", getDisplayRepresentation(procedure$Mnname)), strings.stringAppend("Wrong number of arguments for", getDisplayRepresentation(procedure$Mnname)));
                 }
-            } catch (ClassCastException e222) {
-                throw new WrongType(e222, "length", 1, arglist);
+            } catch (ClassCastException e) {
+                throw new WrongType(e, "length", 1, arglist);
             }
+            Object[] coerced$Mnargs = new Object[(plan.size() + offset)];
+            plan.coerce(arglist, coerced$Mnargs, offset, Lit2);
+            return coerced$Mnargs;
         } else if (lists.isNull(arglist)) {
-            return arglist;
+            return new Object[offset];
         } else {
-            return signalRuntimeError(strings.stringAppend("The procedure ", procedure$Mnname, " expects no arguments, but it was called with the arguments: ", showArglistNoParens(arglist)), strings.stringAppend("Wrong number of arguments for", procedure$Mnname));
+            signalRuntimeError(strings.stringAppend("The procedure ", procedure$Mnname, " expects no arguments, but it was called with the arguments: ", showArglistNoParens(arglist)), strings.stringAppend("Wrong number of arguments for", procedure$Mnname));
+            return null;
         }
     }
 
-    public static Object coerceArg(Object arg, Object type) {
-        arg = sanitizeAtomic(arg);
+    public static boolean isAllCoercible(Object[] args, int offset) {
+        for (int i = offset; i < args.length; i++) {
+            if (args[i] == Lit2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Coercer coercerFor(Object type) {
         if (IsEqual.apply(type, Lit4)) {
-            return coerceToNumber(arg);
+            return numberCoercer;
         }
         if (IsEqual.apply(type, Lit5)) {
-            return coerceToText(arg);
+            return textCoercer;
         }
         if (IsEqual.apply(type, Lit6)) {
-            return coerceToBoolean(arg);
+            return booleanCoercer;
         }
         if (IsEqual.apply(type, Lit7)) {
-            return coerceToYailList(arg);
+            return listCoercer;
         }
         if (IsEqual.apply(type, Lit8)) {
-            return coerceToInstant(arg);
+            return instantCoercer;
         }
         if (IsEqual.apply(type, Lit9)) {
-            return coerceToComponent(arg);
+            return componentCoercer;
         }
-        return !IsEqual.apply(type, Lit10) ? coerceToComponentOfType(arg, type) : arg;
+        if (IsEqual.apply(type, Lit10)) {
+            return anyCoercer;
+        }
+        final Object component$Mntype = type;
+        return new Coercer() {
+            public Object coerce(Object arg) {
+                return runtime.coerceToComponentOfType(runtime.sanitizeAtomic(arg), component$Mntype);
+            }
+        };
+    }
+
+    public static Object coerceArg(Object arg, Object type) {
+        return coercerFor(type).coerce(arg);
     }
 
     public static Object coerceToText(Object arg) {
@@ -3957,6 +4037,10 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Number yailFloor(Object x) {
+        IntNum fixnum = FixnumArithmetic.floor(x);
+        if (fixnum != null) {
+            return fixnum;
+        }
         try {
             return numbers.inexact$To$Exact(numbers.floor(LangObjType.coerceRealNum(x)));
         } catch (ClassCastException e) {
@@ -3965,6 +4049,10 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Number yailCeiling(Object x) {
+        IntNum fixnum = FixnumArithmetic.ceiling(x);
+        if (fixnum != null) {
+            return fixnum;
+        }
         try {
             return numbers.inexact$To$Exact(numbers.ceiling(LangObjType.coerceRealNum(x)));
         } catch (ClassCastException e) {
@@ -3973,6 +4061,10 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Number yailRound(Object x) {
+        IntNum fixnum = FixnumArithmetic.round(x);
+        if (fixnum != null) {
+            return fixnum;
+        }
         try {
             return numbers.inexact$To$Exact(numbers.round(LangObjType.coerceRealNum(x)));
         } catch (ClassCastException e) {
@@ -4049,6 +4141,10 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object yailDivide(Object n, Object d) {
+        Object quotient = FixnumArithmetic.divideInexact(n, d);
+        if (quotient != null) {
+            return quotient;
+        }
         Object apply2;
         Object apply22 = Scheme.numEqu.apply2(d, Lit18);
         try {
@@ -4531,6 +4627,9 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static int yailListLength(Object yail$Mnlist) {
+        if (yail$Mnlist instanceof YailList) {
+            return ((YailList) yail$Mnlist).size();
+        }
         Object yailListContents = yailListContents(yail$Mnlist);
         try {
             return lists.length((LList) yailListContents);
@@ -4540,12 +4639,12 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static Object yailListIndex(Object object, Object yail$Mnlist) {
-        Object i = Lit17;
+        int i = 1;
         for (Object list = yailListContents(yail$Mnlist); !lists.isNull(list); list = lists.cdr.apply1(list)) {
             if (isYailEqual(object, lists.car.apply1(list)) != Boolean.FALSE) {
-                return i;
+                return IntNum.make(i);
             }
-            i = AddOp.$Pl.apply2(i, Lit17);
+            i++;
         }
         return Lit18;
     }
@@ -4557,6 +4656,9 @@ public class runtime extends ModuleBody implements Runnable {
         if (Scheme.numGrt.apply2(index, Integer.valueOf(yailListLength(yail$Mnlist))) != Boolean.FALSE) {
             return signalRuntimeError(Format.formatToString(0, "Select list item: Attempt to get item number ~A of a list of length ~A: ~A", index, Integer.valueOf(yailListLength(yail$Mnlist)), getDisplayRepresentation(yail$Mnlist)), "Select list item: List index too large");
         }
+        if (yail$Mnlist instanceof YailList) {
+            return ((YailList) yail$Mnlist).getItem(((Number) index).intValue());
+        }
         Object yailListContents = yailListContents(yail$Mnlist);
         Object apply2 = AddOp.$Mn.apply2(index, Lit17);
         try {
@@ -4573,6 +4675,10 @@ public class runtime extends ModuleBody implements Runnable {
         if (Scheme.numGrt.apply2(index, Integer.valueOf(yailListLength(yail$Mnlist))) != Boolean.FALSE) {
             signalRuntimeError(Format.formatToString(0, "Replace list item: Attempt to replace item number ~A of a list of length ~A: ~A", index, Integer.valueOf(yailListLength(yail$Mnlist)), getDisplayRepresentation(yail$Mnlist)), "List index too large");
         }
+        if (yail$Mnlist instanceof YailList) {
+            ((YailList) yail$Mnlist).setItem(((Number) index).intValue(), value);
+            return;
+        }
         Object yailListContents = yailListContents(yail$Mnlist);
         Object apply2 = AddOp.$Mn.apply2(index, Lit17);
         try {
@@ -4588,7 +4694,7 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static void yailListRemoveItem$Ex(Object yail$Mnlist, Object index) {
-        PairWithPosition index2 = coerceToNumber(index);
+        Object index2 = coerceToNumber(index);
         if (index2 == Lit2) {
             signalRuntimeError(Format.formatToString(0, "Remove list item: index -- ~A -- is not a number", getDisplayRepresentation(index)), "Bad list index");
         }
@@ -4601,6 +4707,10 @@ public class runtime extends ModuleBody implements Runnable {
         if (Scheme.numGrt.apply2(index2, Integer.valueOf(yailListLength(yail$Mnlist))) != Boolean.FALSE) {
             signalRuntimeError(Format.formatToString(0, "Remove list item: Attempt to remove item ~A of a list of length ~A: ~A", index2, Integer.valueOf(yailListLength(yail$Mnlist)), getDisplayRepresentation(yail$Mnlist)), "List index too large");
         }
+        if (yail$Mnlist instanceof YailList) {
+            ((YailList) yail$Mnlist).removeItem(((Number) index2).intValue());
+            return;
+        }
         Object apply2 = AddOp.$Mn.apply2(index2, Lit17);
         try {
             Object pair$Mnpointing$Mnto$Mndeletion = lists.listTail(yail$Mnlist, ((Number) apply2).intValue());
@@ -4615,7 +4725,7 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static void yailListInsertItem$Ex(Object yail$Mnlist, Object index, Object item) {
-        PairWithPosition index2 = coerceToNumber(index);
+        Object index2 = coerceToNumber(index);
         if (index2 == Lit2) {
             signalRuntimeError(Format.formatToString(0, "Insert list item: index (~A) is not a number", getDisplayRepresentation(index)), "Bad list index");
         }
@@ -4625,6 +4735,10 @@ public class runtime extends ModuleBody implements Runnable {
         if (Scheme.numGrt.apply2(index2, Integer.valueOf(yailListLength(yail$Mnlist) + 1)) != Boolean.FALSE) {
             signalRuntimeError(Format.formatToString(0, "Insert list item: Attempt to insert item ~A into the list ~A.  The maximum valid item number is ~A.", index2, getDisplayRepresentation(yail$Mnlist), Integer.valueOf(yailListLength(yail$Mnlist) + 1)), "List index too large");
         }
+        if (yail$Mnlist instanceof YailList) {
+            ((YailList) yail$Mnlist).insertItem(((Number) index2).intValue(), item);
+            return;
+        }
         Object contents = yailListContents(yail$Mnlist);
         if (Scheme.numEqu.apply2(index2, Lit17) != Boolean.FALSE) {
             setYailListContents$Ex(yail$Mnlist, lists.cons(item, contents));
@@ -4644,6 +4758,15 @@ public class runtime extends ModuleBody implements Runnable {
     }
 
     public static void yailListAppend$Ex(Object yail$Mnlist$MnA, Object yail$Mnlist$MnB) {
+        if (yail$Mnlist$MnA instanceof YailList) {
+            Object contents = yailListContents(yail$Mnlist$MnB);
+            try {
+                ((YailList) yail$Mnlist$MnA).appendItems(LList.makeList(((LList) contents).toArray(), 0));
+                return;
+            } catch (ClassCastException e) {
+                throw new WrongType(e, "list-copy", 1, contents);
+            }
+        }
         Object yailListContents = yailListContents(yail$Mnlist$MnA);
         try {
             yailListContents = lists.listTail(yail$Mnlist$MnA, lists.length((LList) yailListContents));
@@ -4770,165 +4893,63 @@ public class runtime extends ModuleBody implements Runnable {
         return yailForRangeWithNumericCheckedArgs(proc, nstart, nend, nstep);
     }
 
-    /* JADX WARNING: inconsistent code. */
-    /* Code decompiled incorrectly, please refer to instructions dump. */
-    public static java.lang.Object yailForRangeWithNumericCheckedArgs(java.lang.Object r9, java.lang.Object r10, java.lang.Object r11, java.lang.Object r12) {
-        /*
-        r6 = 0;
-        r8 = -2;
-        r4 = kawa.standard.Scheme.numEqu;
-        r5 = Lit18;
-        r5 = r4.apply2(r12, r5);
-        r0 = r5;
-        r0 = (java.lang.Boolean) r0;	 Catch:{ ClassCastException -> 0x00bc }
-        r4 = r0;
-        r3 = r4.booleanValue();	 Catch:{ ClassCastException -> 0x00bc }
-        if (r3 == 0) goto L_0x0025;
-    L_0x0014:
-        r4 = kawa.standard.Scheme.numEqu;
-        r4 = r4.apply2(r10, r11);
-        r5 = java.lang.Boolean.FALSE;
-        if (r4 == r5) goto L_0x0027;
-    L_0x001e:
-        r4 = kawa.standard.Scheme.applyToArgs;
-        r4 = r4.apply2(r9, r10);
-    L_0x0024:
-        return r4;
-    L_0x0025:
-        if (r3 != 0) goto L_0x001e;
-    L_0x0027:
-        r4 = kawa.standard.Scheme.numLss;
-        r5 = r4.apply2(r10, r11);
-        r0 = r5;
-        r0 = (java.lang.Boolean) r0;	 Catch:{ ClassCastException -> 0x00c5 }
-        r4 = r0;
-        r3 = r4.booleanValue();	 Catch:{ ClassCastException -> 0x00c5 }
-        if (r3 == 0) goto L_0x0047;
-    L_0x0037:
-        r4 = kawa.standard.Scheme.numLEq;
-        r5 = Lit18;
-        r5 = r4.apply2(r12, r5);
-        r0 = r5;
-        r0 = (java.lang.Boolean) r0;	 Catch:{ ClassCastException -> 0x00ce }
-        r4 = r0;
-        r3 = r4.booleanValue();	 Catch:{ ClassCastException -> 0x00ce }
-    L_0x0047:
-        if (r3 == 0) goto L_0x004d;
-    L_0x0049:
-        if (r3 == 0) goto L_0x0071;
-    L_0x004b:
-        r4 = r6;
-        goto L_0x0024;
-    L_0x004d:
-        r4 = kawa.standard.Scheme.numGrt;
-        r5 = r4.apply2(r10, r11);
-        r0 = r5;
-        r0 = (java.lang.Boolean) r0;	 Catch:{ ClassCastException -> 0x00d7 }
-        r4 = r0;
-        r3 = r4.booleanValue();	 Catch:{ ClassCastException -> 0x00d7 }
-        if (r3 == 0) goto L_0x006d;
-    L_0x005d:
-        r4 = kawa.standard.Scheme.numGEq;
-        r5 = Lit18;
-        r5 = r4.apply2(r12, r5);
-        r0 = r5;
-        r0 = (java.lang.Boolean) r0;	 Catch:{ ClassCastException -> 0x00e0 }
-        r4 = r0;
-        r3 = r4.booleanValue();	 Catch:{ ClassCastException -> 0x00e0 }
-    L_0x006d:
-        if (r3 == 0) goto L_0x008a;
-    L_0x006f:
-        if (r3 != 0) goto L_0x004b;
-    L_0x0071:
-        r4 = kawa.standard.Scheme.numLss;
-        r5 = Lit18;
-        r4 = r4.apply2(r12, r5);
-        r5 = java.lang.Boolean.FALSE;
-        if (r4 == r5) goto L_0x00ad;
-    L_0x007d:
-        r2 = kawa.standard.Scheme.numLss;
-    L_0x007f:
-        r1 = r10;
-    L_0x0080:
-        r4 = r2.apply2(r1, r11);
-        r5 = java.lang.Boolean.FALSE;
-        if (r4 == r5) goto L_0x00b0;
-    L_0x0088:
-        r4 = r6;
-        goto L_0x0024;
-    L_0x008a:
-        r4 = kawa.standard.Scheme.numEqu;
-        r4 = r4.apply2(r10, r11);
-        r5 = java.lang.Boolean.FALSE;	 Catch:{ ClassCastException -> 0x00e9 }
-        if (r4 == r5) goto L_0x00a8;
-    L_0x0094:
-        r4 = 1;
-    L_0x0095:
-        r4 = r4 + 1;
-        r3 = r4 & 1;
-        if (r3 == 0) goto L_0x00aa;
-    L_0x009b:
-        r4 = kawa.standard.Scheme.numEqu;
-        r5 = Lit18;
-        r4 = r4.apply2(r12, r5);
-        r5 = java.lang.Boolean.FALSE;
-        if (r4 == r5) goto L_0x0071;
-    L_0x00a7:
-        goto L_0x004b;
-    L_0x00a8:
-        r4 = 0;
-        goto L_0x0095;
-    L_0x00aa:
-        if (r3 == 0) goto L_0x0071;
-    L_0x00ac:
-        goto L_0x004b;
-    L_0x00ad:
-        r2 = kawa.standard.Scheme.numGrt;
-        goto L_0x007f;
-    L_0x00b0:
-        r4 = kawa.standard.Scheme.applyToArgs;
-        r4.apply2(r9, r1);
-        r4 = gnu.kawa.functions.AddOp.$Pl;
-        r1 = r4.apply2(r1, r12);
-        goto L_0x0080;
-    L_0x00bc:
-        r4 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r4, r7, r8, r5);
-        throw r6;
-    L_0x00c5:
-        r4 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r4, r7, r8, r5);
-        throw r6;
-    L_0x00ce:
-        r4 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r4, r7, r8, r5);
-        throw r6;
-    L_0x00d7:
-        r4 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r4, r7, r8, r5);
-        throw r6;
-    L_0x00e0:
-        r4 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r4, r7, r8, r5);
-        throw r6;
-    L_0x00e9:
-        r5 = move-exception;
-        r6 = new gnu.mapping.WrongType;
-        r7 = "x";
-        r6.<init>(r5, r7, r8, r4);
-        throw r6;
-        */
-        throw new UnsupportedOperationException("Method not decompiled: com.google.youngandroid.runtime.yailForRangeWithNumericCheckedArgs(java.lang.Object, java.lang.Object, java.lang.Object, java.lang.Object):java.lang.Object");
+    public static Object yailForRangeWithNumericCheckedArgs(Object proc, Object start, Object end, Object step) {
+        if (FixnumArithmetic.isFixnum(start) && FixnumArithmetic.isFixnum(end) && FixnumArithmetic.isFixnum(step)) {
+            return yailForFixnumRange(proc, (long) ((IntNum) start).ival, (long) ((IntNum) end).ival, (long) ((IntNum) step).ival);
+        }
+        if (Scheme.numEqu.apply2(step, Lit18) != Boolean.FALSE && Scheme.numEqu.apply2(start, end) != Boolean.FALSE) {
+            return Scheme.applyToArgs.apply2(proc, start);
+        }
+        if (Scheme.numLss.apply2(start, end) != Boolean.FALSE && Scheme.numLEq.apply2(step, Lit18) != Boolean.FALSE) {
+            return null;
+        }
+        if (Scheme.numGrt.apply2(start, end) != Boolean.FALSE && Scheme.numGEq.apply2(step, Lit18) != Boolean.FALSE) {
+            return null;
+        }
+        if (Scheme.numEqu.apply2(start, end) == Boolean.FALSE && Scheme.numEqu.apply2(step, Lit18) != Boolean.FALSE) {
+            return null;
+        }
+        boolean descending = Scheme.numLss.apply2(step, Lit18) != Boolean.FALSE;
+        Object i = start;
+        while (true) {
+            int order = FixnumArithmetic.compare(i, end);
+            if (order == 2) {
+                if ((descending ? Scheme.numLss : Scheme.numGrt).apply2(i, end) != Boolean.FALSE) {
+                    return null;
+                }
+            } else if (descending) {
+                if (order < 0) {
+                    return null;
+                }
+            } else if (order > 0) {
+                return null;
+            }
+            Scheme.applyToArgs.apply2(proc, i);
+            Object next = FixnumArithmetic.add(i, step);
+            if (next == null) {
+                next = AddOp.$Pl.apply2(i, step);
+            }
+            i = next;
+        }
+    }
+
+    public static Object yailForFixnumRange(Object proc, long start, long end, long step) {
+        if (step == 0) {
+            if (start == end) {
+                return Scheme.applyToArgs.apply2(proc, IntNum.make(start));
+            }
+            return null;
+        } else if (step > 0) {
+            for (long i = start; i <= end; i += step) {
+                Scheme.applyToArgs.apply2(proc, IntNum.make(i));
+            }
+            return null;
+        } else {
+            for (long i2 = start; i2 >= end; i2 += step) {
+                Scheme.applyToArgs.apply2(proc, IntNum.make(i2));
+            }
+            return null;
+        }
     }
 
     public Object apply4(ModuleMethod moduleMethod, Object obj, Object obj2, Object obj3, Object obj4) {